@@ -0,0 +1,69 @@
+package com.stateloan.lms.config;
+
+import com.stateloan.lms.entity.CatalogCache;
+import com.stateloan.lms.entity.Permission;
+import com.stateloan.lms.entity.Role;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.PermissionCatalogChangedEvent;
+import com.stateloan.lms.event.RoleGraphChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts the role and permission catalog from the Hibernate second-level cache when a change
+ * event arrives. Local writes already keep the cache consistent; the events matter for changes
+ * made by other instances, which are replayed here by the cluster relay and would otherwise be
+ * served stale from this instance's regions until they expire.
+ */
+@Component
+public class CatalogCacheEvictor {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleGraphChanged(RoleGraphChangedEvent event) {
+        Cache cache = cache();
+        if (event.roleId() != null) {
+            cache.evictEntityData(Role.class, event.roleId());
+            cache.evictCollectionData(Role.class.getName() + ".permissions", event.roleId());
+        } else {
+            cache.evictEntityData(Role.class);
+            cache.evictCollectionData(Role.class.getName() + ".permissions");
+        }
+        // A deleted role also disappears from the parents of its children
+        cache.evictCollectionData(Role.class.getName() + ".parents");
+        cache.evictQueryRegion(CatalogCache.QUERIES);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionCatalogChanged(PermissionCatalogChangedEvent event) {
+        Cache cache = cache();
+        if (event.permissionId() != null) {
+            cache.evictEntityData(Permission.class, event.permissionId());
+        } else {
+            cache.evictEntityData(Permission.class);
+        }
+        // Any role may have granted a deleted permission
+        cache.evictCollectionData(Role.class.getName() + ".permissions");
+        cache.evictQueryRegion(CatalogCache.QUERIES);
+    }
+    
+    // Ahead of the registries, which reload from the database on the same event
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCacheFlush(CacheFlushEvent event) {
+        cache().evictAllRegions();
+    }
+}
\ No newline at end of file
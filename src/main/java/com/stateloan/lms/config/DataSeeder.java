@@ -3,8 +3,10 @@ package com.stateloan.lms.config;
 import com.stateloan.lms.entity.Permission;
 import com.stateloan.lms.entity.Role;
 import com.stateloan.lms.entity.User;
+import com.stateloan.lms.dto.RoutePermissionRequest;
 import com.stateloan.lms.service.PermissionService;
 import com.stateloan.lms.service.RoleService;
+import com.stateloan.lms.service.RoutePermissionService;
 import com.stateloan.lms.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +15,10 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 public class DataSeeder implements CommandLineRunner {
@@ -29,10 +34,14 @@ public class DataSeeder implements CommandLineRunner {
     @Autowired
     private PermissionService permissionService;
     
+    @Autowired
+    private RoutePermissionService routePermissionService;
+    
     @Override
     public void run(String... args) throws Exception {
         try {
             seedPermissions();
+            seedRoutePermissions();
             seedRoles();
             seedUsers();
 
@@ -62,7 +71,9 @@ public class DataSeeder implements CommandLineRunner {
             // Report permissions
             "REPORT:READ", "REPORT:GENERATE", "REPORT:EXPORT",
             // System administration permissions
-            "SYSTEM:ADMIN", "SYSTEM:CONFIG", "SYSTEM:AUDIT"
+            "SYSTEM:ADMIN", "SYSTEM:CONFIG", "SYSTEM:AUDIT",
+            // Authorization decisions and token introspection on behalf of other services
+            "AUTHZ:CHECK"
         );
         
         for (String permissionName : permissionNames) {
@@ -76,6 +87,28 @@ public class DataSeeder implements CommandLineRunner {
         }
     }
     
+    private void seedRoutePermissions() {
+        logger.info("Seeding route permissions...");
+        
+        // Rules are only added for patterns that have none yet, so edited rules are left alone.
+        // SYSTEM:ADMIN is granted to the ADMIN role alone, keeping the administration APIs admin-only.
+        Map<String, String> routePermissions = new LinkedHashMap<>();
+        routePermissions.put("/api/users/**", "SYSTEM:ADMIN");
+        routePermissions.put("/api/roles/**", "SYSTEM:ADMIN");
+        routePermissions.put("/api/permissions/**", "SYSTEM:ADMIN");
+        routePermissions.put("/api/permissions/holders", "SYSTEM:AUDIT");
+        routePermissions.put("/api/authz/**", "AUTHZ:CHECK");
+        routePermissions.put("/api/auth/introspect", "AUTHZ:CHECK");
+        
+        routePermissions.forEach((pathPattern, permissionName) -> {
+            if (!routePermissionService.existsByPathPattern(pathPattern)) {
+                routePermissionService.createRoutePermission(
+                        new RoutePermissionRequest(null, pathPattern, permissionName, 0));
+                logger.info("Created route rule: {} -> {}", pathPattern, permissionName);
+            }
+        });
+    }
+    
     private void seedRoles() {
         logger.info("Seeding roles...");
         
@@ -116,18 +149,43 @@ public class DataSeeder implements CommandLineRunner {
             logger.info("Created USER role with basic permissions");
         }
         
-        // Create LOAN_OFFICER role
+        // Create STAFF role, the shared base of the staff roles below
+        if (!roleService.existsByName("STAFF")) {
+            Role staffRole = new Role("STAFF", "Staff member with read access to loan data");
+            staffRole = roleService.createRole(staffRole);
+            // Refresh the role to ensure we have the correct ID
+            staffRole = roleService.findByName("STAFF").orElse(staffRole);
+            
+            // Assign permissions common to all staff
+            List<String> staffPermissions = Arrays.asList(
+                "USER:READ", "LOAN:READ", "APPLICATION:READ", "REPORT:READ", "REPORT:GENERATE"
+            );
+            
+            for (String permissionName : staffPermissions) {
+                Permission permission = permissionService.findByName(permissionName).orElse(null);
+                if (permission != null) {
+                    roleService.addPermissionToRole(staffRole.getId(), permission.getId());
+                }
+            }
+            logger.info("Created STAFF role with shared staff permissions");
+        }
+        
+        Set<Long> staffParent = roleService.findByName("STAFF")
+                .map(staffRole -> Set.of(staffRole.getId()))
+                .orElse(Set.of());
+        
+        // Create LOAN_OFFICER role, inheriting STAFF
         if (!roleService.existsByName("LOAN_OFFICER")) {
             Role loanOfficerRole = new Role("LOAN_OFFICER", "Loan Officer with loan processing capabilities");
+            loanOfficerRole.setParentIds(staffParent);
             loanOfficerRole = roleService.createRole(loanOfficerRole);
             // Refresh the role to ensure we have the correct ID
             loanOfficerRole = roleService.findByName("LOAN_OFFICER").orElse(loanOfficerRole);
             
             // Assign loan processing permissions
             List<String> loanOfficerPermissions = Arrays.asList(
-                "USER:READ", "LOAN:CREATE", "LOAN:READ", "LOAN:UPDATE", "LOAN:PROCESS",
-                "APPLICATION:READ", "APPLICATION:UPDATE", "APPLICATION:REVIEW",
-                "REPORT:READ", "REPORT:GENERATE"
+                "LOAN:CREATE", "LOAN:UPDATE", "LOAN:PROCESS",
+                "APPLICATION:UPDATE", "APPLICATION:REVIEW"
             );
             
             for (String permissionName : loanOfficerPermissions) {
@@ -136,21 +194,20 @@ public class DataSeeder implements CommandLineRunner {
                     roleService.addPermissionToRole(loanOfficerRole.getId(), permission.getId());
                 }
             }
-            logger.info("Created LOAN_OFFICER role with loan processing permissions");
+            logger.info("Created LOAN_OFFICER role with loan processing permissions on top of STAFF");
         }
         
-        // Create MANAGER role
+        // Create MANAGER role, inheriting STAFF
         if (!roleService.existsByName("MANAGER")) {
             Role managerRole = new Role("MANAGER", "Manager with approval and oversight capabilities");
+            managerRole.setParentIds(staffParent);
             managerRole = roleService.createRole(managerRole);
             // Refresh the role to ensure we have the correct ID
             managerRole = roleService.findByName("MANAGER").orElse(managerRole);
             
             // Assign management permissions
             List<String> managerPermissions = Arrays.asList(
-                "USER:READ", "LOAN:READ", "LOAN:APPROVE", "LOAN:REJECT",
-                "APPLICATION:READ", "APPLICATION:APPROVE", "REPORT:READ",
-                "REPORT:GENERATE", "REPORT:EXPORT"
+                "LOAN:APPROVE", "LOAN:REJECT", "APPLICATION:APPROVE", "REPORT:EXPORT"
             );
             
             for (String permissionName : managerPermissions) {
@@ -159,7 +216,7 @@ public class DataSeeder implements CommandLineRunner {
                     roleService.addPermissionToRole(managerRole.getId(), permission.getId());
                 }
             }
-            logger.info("Created MANAGER role with management permissions");
+            logger.info("Created MANAGER role with management permissions on top of STAFF");
         }
     }
     
@@ -226,6 +283,7 @@ public class DataSeeder implements CommandLineRunner {
             case "admin" -> "administer " + resource;
             case "config" -> "configure " + resource;
             case "audit" -> "audit " + resource;
+            case "check" -> "check " + resource + " decisions";
             default -> "perform " + action + " action on " + resource;
         };
     }
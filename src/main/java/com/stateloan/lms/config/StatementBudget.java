@@ -0,0 +1,20 @@
+package com.stateloan.lms.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements Hibernate may issue while the annotated handler runs. The
+ * count starts when the handler is invoked, so authentication in the filter chain is not part of
+ * it, and is checked by {@link StatementBudgetAdvice} before the response body is written.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    
+    int value();
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.stateloan.lms.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Holds handlers annotated with {@link StatementBudget} to their declared statement count. The
+ * interceptor starts counting when such a handler is invoked; the body advice compares the count
+ * with the budget once the handler has returned, records it and logs an overrun. With
+ * {@code statement-budget.enforce} set, an overrun fails the request with a 500 instead, which is
+ * how a CI or staging run turns a regressed fetch plan into a failure.
+ */
+@ControllerAdvice
+public class StatementBudgetAdvice implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetAdvice.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${statement-budget.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${statement-budget.enforce:false}")
+    private boolean enforce;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (enabled && handler instanceof HandlerMethod method && method.hasMethodAnnotation(StatementBudget.class)) {
+            StatementCounter.start();
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StatementCounter.stop();
+    }
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled && returnType.hasMethodAnnotation(StatementBudget.class);
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int statements = StatementCounter.current();
+        if (statements < 0) {
+            return body;
+        }
+        
+        int budget = returnType.getMethodAnnotation(StatementBudget.class).value();
+        String handler = returnType.getContainingClass().getSimpleName() + "#" + returnType.getExecutable().getName();
+        DistributionSummary.builder("jpa.statements.per.request").tag("handler", handler)
+                .register(meterRegistry).record(statements);
+        
+        if (statements > budget) {
+            Counter.builder("jpa.statement.budget.exceeded").tag("handler", handler).register(meterRegistry).increment();
+            String message = handler + " issued " + statements + " SQL statements, budget is " + budget;
+            if (enforce) {
+                throw new StatementBudgetExceededException(message);
+            }
+            logger.warn(message);
+        }
+        return body;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.stateloan.lms.config;
+
+/**
+ * Thrown when {@code statement-budget.enforce} is on and a handler exceeds its
+ * {@link StatementBudget}. Not a client error, so it is answered with a 500.
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+    
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.stateloan.lms.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the statements Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}. Registered as the session factory's statement inspector; the SQL itself is
+ * passed through untouched. Statements sent through {@code JdbcTemplate} are not seen. Public so
+ * tests can pin the statement count of a service call the same way.
+ */
+public class StatementCounter implements StatementInspector {
+    
+    private static final ThreadLocal<int[]> counts = new ThreadLocal<>();
+    
+    @Override
+    public String inspect(String sql) {
+        int[] count = counts.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+    
+    public static void start() {
+        counts.set(new int[1]);
+    }
+    
+    /** Statements counted since {@link #start()}, or -1 when counting is not active. */
+    public static int current() {
+        int[] count = counts.get();
+        return count != null ? count[0] : -1;
+    }
+    
+    public static void stop() {
+        counts.remove();
+    }
+}
\ No newline at end of file
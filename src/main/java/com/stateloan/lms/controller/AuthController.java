@@ -1,24 +1,32 @@
 package com.stateloan.lms.controller;
 
+import com.stateloan.lms.dto.AvailabilityResponse;
+import com.stateloan.lms.dto.CurrentUserResponse;
+import com.stateloan.lms.dto.IntrospectionResponse;
 import com.stateloan.lms.dto.JwtResponse;
 import com.stateloan.lms.dto.LoginRequest;
 import com.stateloan.lms.dto.MessageResponse;
 import com.stateloan.lms.dto.RegisterRequest;
-import com.stateloan.lms.entity.User;
+import com.stateloan.lms.security.LoginThrottle;
 import com.stateloan.lms.security.UserPrincipal;
 import com.stateloan.lms.service.AuthService;
+import com.stateloan.lms.service.AvailabilityService;
+import com.stateloan.lms.service.TokenIntrospectionService;
 import com.stateloan.lms.service.UserService;
+import com.stateloan.lms.exception.ConflictException;
+import com.stateloan.lms.exception.TooManyRequestsException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @RestController
 @RequestMapping("/api/auth")
 @Tag(name = "Authentication", description = "Authentication management APIs")
@@ -30,20 +38,27 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private TokenIntrospectionService tokenIntrospectionService;
+    
+    @Autowired
+    private AvailabilityService availabilityService;
+    
     @PostMapping("/login")
     @Operation(summary = "Authenticate user and return JWT token")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
         try {
-            String jwt = authService.authenticate(loginRequest.getUsername(), loginRequest.getPassword());
-            
-            User user = userService.findByUsername(loginRequest.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            loginThrottle.checkLoginAttempt(loginRequest.getUsername(), request.getRemoteAddr());
             
-            List<String> roles = user.getRoles().stream()
-                    .map(role -> role.getName())
-                    .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(new JwtResponse(jwt, user.getId(), user.getUsername(), user.getEmail(), roles));
+            JwtResponse response = authService.authenticate(loginRequest.getUsername(), loginRequest.getPassword());
+            loginThrottle.recordSuccessfulLogin(loginRequest.getUsername());
+            return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -54,33 +69,34 @@ public class AuthController {
     @Operation(summary = "Register a new user account")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
-            if (userService.existsByUsername(registerRequest.getUsername())) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Error: Username is already taken!"));
-            }
-            
-            if (userService.existsByEmail(registerRequest.getEmail())) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Error: Email is already in use!"));
-            }
-            
-            User user = new User(registerRequest.getUsername(), 
-                               registerRequest.getEmail(), 
-                               registerRequest.getPassword());
-            
-            userService.createUser(user);
+            userService.registerUser(registerRequest.getUsername(), registerRequest.getEmail(),
+                    registerRequest.getPassword());
             
             return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+        } catch (TooManyRequestsException | ConflictException | DataIntegrityViolationException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
         }
     }
     
+    @GetMapping("/availability")
+    @Operation(summary = "Check whether a username and/or email is still available")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(availabilityService.check(username, email));
+    }
+    
     @PostMapping("/logout")
-    @Operation(summary = "Logout user (clear security context)")
-    public ResponseEntity<?> logoutUser() {
-        authService.logout();
+    @Operation(summary = "Logout user and revoke the presented token")
+    public ResponseEntity<?> logoutUser(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        String token = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(token);
         return ResponseEntity.ok(new MessageResponse("User logged out successfully!"));
     }
     
@@ -88,6 +104,19 @@ public class AuthController {
     @Operation(summary = "Get current user information")
     public ResponseEntity<?> getCurrentUser(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return ResponseEntity.ok(userPrincipal);
+        return ResponseEntity.ok(CurrentUserResponse.from(userPrincipal));
+    }
+    
+    @PostMapping("/introspect")
+    @Operation(summary = "Introspect a token (RFC 7662)")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<IntrospectionResponse> introspect(@RequestParam(value = "token", required = false) String token) {
+        IntrospectionResponse introspection = tokenIntrospectionService.introspect(token);
+        
+        CacheControl cacheControl = introspection.active()
+                ? CacheControl.maxAge(tokenIntrospectionService.getCacheLifetime(introspection)).cachePrivate()
+                : CacheControl.noStore();
+        
+        return ResponseEntity.ok().cacheControl(cacheControl).body(introspection);
     }
 }
\ No newline at end of file
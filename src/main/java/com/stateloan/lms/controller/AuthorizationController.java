@@ -0,0 +1,33 @@
+package com.stateloan.lms.controller;
+
+import com.stateloan.lms.dto.AuthorizationCheckRequest;
+import com.stateloan.lms.dto.MessageResponse;
+import com.stateloan.lms.service.AuthorizationCheckService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/authz")
+@Tag(name = "Authorization", description = "Authorization decision APIs for internal services")
+@SecurityRequirement(name = "bearerAuth")
+public class AuthorizationController {
+    
+    @Autowired
+    private AuthorizationCheckService authorizationCheckService;
+    
+    @PostMapping("/check")
+    @Operation(summary = "Decide a batch of subject/permission checks")
+    public ResponseEntity<?> check(@Valid @RequestBody AuthorizationCheckRequest request) {
+        try {
+            return ResponseEntity.ok(authorizationCheckService.check(request));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+}
\ No newline at end of file
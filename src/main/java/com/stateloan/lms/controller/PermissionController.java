@@ -1,15 +1,22 @@
 package com.stateloan.lms.controller;
 
+import com.stateloan.lms.dto.CursorPage;
+import com.stateloan.lms.dto.CursorRequest;
 import com.stateloan.lms.dto.MessageResponse;
+import com.stateloan.lms.dto.PermissionHoldersResponse;
+import com.stateloan.lms.dto.PermissionResponse;
+import com.stateloan.lms.dto.RoutePermissionRequest;
+import com.stateloan.lms.dto.RoutePermissionResponse;
 import com.stateloan.lms.entity.Permission;
+import com.stateloan.lms.exception.ConflictException;
 import com.stateloan.lms.service.PermissionService;
+import com.stateloan.lms.service.RoutePermissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,20 +30,33 @@ public class PermissionController {
     @Autowired
     private PermissionService permissionService;
     
+    @Autowired
+    private RoutePermissionService routePermissionService;
+    
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all permissions")
-    public ResponseEntity<List<Permission>> getAllPermissions() {
-        List<Permission> permissions = permissionService.findAll();
-        return ResponseEntity.ok(permissions);
+    @Operation(summary = "Get permissions, one keyset page at a time")
+    public ResponseEntity<?> getAllPermissions(@RequestParam(required = false) String resource,
+                                               @RequestParam(required = false) String action,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int size,
+                                               @RequestParam(defaultValue = "id") String sort,
+                                               @RequestParam(defaultValue = "asc") String direction,
+                                               @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<PermissionResponse> permissions = permissionService.findPage(resource, action,
+                    new CursorRequest(cursor, size, sort, direction, includeTotal));
+            return ResponseEntity.ok(permissions);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get permission by ID")
     public ResponseEntity<?> getPermissionById(@PathVariable Long id) {
         try {
-            Permission permission = permissionService.findById(id)
+            PermissionResponse permission = permissionService.findResponseById(id)
                     .orElseThrow(() -> new RuntimeException("Permission not found with id: " + id));
             return ResponseEntity.ok(permission);
         } catch (Exception e) {
@@ -46,7 +66,6 @@ public class PermissionController {
     }
     
     @GetMapping("/resources")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get all unique resources")
     public ResponseEntity<List<String>> getAllResources() {
         List<String> resources = permissionService.getAllResources();
@@ -54,7 +73,6 @@ public class PermissionController {
     }
     
     @GetMapping("/actions")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get all unique actions")
     public ResponseEntity<List<String>> getAllActions() {
         List<String> actions = permissionService.getAllActions();
@@ -62,28 +80,42 @@ public class PermissionController {
     }
     
     @GetMapping("/by-resource/{resource}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get permissions by resource")
-    public ResponseEntity<List<Permission>> getPermissionsByResource(@PathVariable String resource) {
-        List<Permission> permissions = permissionService.findByResource(resource);
+    public ResponseEntity<List<PermissionResponse>> getPermissionsByResource(@PathVariable String resource) {
+        List<PermissionResponse> permissions = permissionService.findResponsesByResource(resource);
         return ResponseEntity.ok(permissions);
     }
     
     @GetMapping("/by-action/{action}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get permissions by action")
-    public ResponseEntity<List<Permission>> getPermissionsByAction(@PathVariable String action) {
-        List<Permission> permissions = permissionService.findByAction(action);
+    public ResponseEntity<List<PermissionResponse>> getPermissionsByAction(@PathVariable String action) {
+        List<PermissionResponse> permissions = permissionService.findResponsesByAction(action);
         return ResponseEntity.ok(permissions);
     }
     
+    @GetMapping("/holders")
+    @Operation(summary = "Get users holding a permission, or any permission of a resource")
+    public ResponseEntity<?> getPermissionHolders(@RequestParam(required = false) String permission,
+                                                  @RequestParam(required = false) String resource,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int size,
+                                                  @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            PermissionHoldersResponse holders = permissionService.findHolders(permission, resource, cursor, size,
+                    includeTotal);
+            return ResponseEntity.ok(holders);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+    
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create new permission")
     public ResponseEntity<?> createPermission(@Valid @RequestBody Permission permission) {
         try {
             Permission createdPermission = permissionService.createPermission(permission);
-            return ResponseEntity.ok(createdPermission);
+            return ResponseEntity.ok(PermissionResponse.from(createdPermission));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -91,12 +123,11 @@ public class PermissionController {
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update permission")
     public ResponseEntity<?> updatePermission(@PathVariable Long id, @Valid @RequestBody Permission permissionRequest) {
         try {
             Permission updatedPermission = permissionService.updatePermission(id, permissionRequest);
-            return ResponseEntity.ok(updatedPermission);
+            return ResponseEntity.ok(PermissionResponse.from(updatedPermission));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -104,12 +135,56 @@ public class PermissionController {
     }
     
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete permission")
     public ResponseEntity<?> deletePermission(@PathVariable Long id) {
         try {
             permissionService.deletePermission(id);
             return ResponseEntity.ok(new MessageResponse("Permission deleted successfully!"));
+        } catch (ConflictException e) {
+            throw e;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/routes")
+    @Operation(summary = "Get all route permission rules")
+    public ResponseEntity<List<RoutePermissionResponse>> getAllRoutePermissions() {
+        List<RoutePermissionResponse> routes = routePermissionService.findAll().stream()
+                .map(RoutePermissionResponse::from)
+                .toList();
+        return ResponseEntity.ok(routes);
+    }
+    
+    @PostMapping("/routes")
+    @Operation(summary = "Create route permission rule")
+    public ResponseEntity<?> createRoutePermission(@Valid @RequestBody RoutePermissionRequest request) {
+        try {
+            return ResponseEntity.ok(RoutePermissionResponse.from(routePermissionService.createRoutePermission(request)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/routes/{id}")
+    @Operation(summary = "Update route permission rule")
+    public ResponseEntity<?> updateRoutePermission(@PathVariable Long id, @Valid @RequestBody RoutePermissionRequest request) {
+        try {
+            return ResponseEntity.ok(RoutePermissionResponse.from(routePermissionService.updateRoutePermission(id, request)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/routes/{id}")
+    @Operation(summary = "Delete route permission rule")
+    public ResponseEntity<?> deleteRoutePermission(@PathVariable Long id) {
+        try {
+            routePermissionService.deleteRoutePermission(id);
+            return ResponseEntity.ok(new MessageResponse("Route rule deleted successfully!"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
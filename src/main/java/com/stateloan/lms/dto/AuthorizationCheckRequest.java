@@ -0,0 +1,17 @@
+package com.stateloan.lms.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * A batch of "may this user hold this permission" questions. The optional target is not
+ * interpreted; it is echoed back so callers can correlate decisions with their own records.
+ */
+public record AuthorizationCheckRequest(@NotEmpty List<@Valid Check> checks) {
+    
+    public record Check(@NotBlank String subject, @NotBlank String permission, String target) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.stateloan.lms.dto;
+
+import java.util.List;
+
+/**
+ * Decisions in the same order as the checks of the request.
+ */
+public record AuthorizationCheckResponse(List<Decision> decisions) {
+    
+    public record Decision(String subject, String permission, String target, boolean allowed) {
+    }
+}
\ No newline at end of file
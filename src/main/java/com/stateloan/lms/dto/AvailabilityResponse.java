@@ -0,0 +1,11 @@
+package com.stateloan.lms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Availability of the identifiers that were asked about; an identifier that was not asked about
+ * is omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailabilityResponse(Boolean usernameAvailable, Boolean emailAvailable) {
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.stateloan.lms.dto;
+
+/**
+ * Outcome of a bulk assignment: join-table rows inserted and deleted, and the number of distinct
+ * users or roles whose assignments actually changed. Assignments that already existed, or removals
+ * of assignments that did not, count as neither.
+ */
+public record BulkAssignmentResponse(long added, long removed, long affected) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.stateloan.lms.dto;
+
+import java.util.Set;
+
+/**
+ * Adds and removes the same permissions for several roles at once.
+ */
+public record BulkRolePermissionsRequest(Set<Long> roleIds, Set<Long> addPermissionIds,
+                                         Set<Long> removePermissionIds) {
+}
\ No newline at end of file
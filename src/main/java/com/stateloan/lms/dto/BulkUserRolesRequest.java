@@ -0,0 +1,15 @@
+package com.stateloan.lms.dto;
+
+import java.util.Set;
+
+/**
+ * Adds and removes roles for many users at once. The users are either listed by id or selected by
+ * a filter with the semantics of the user listing: username and email prefixes, enabled flag and a
+ * role the user already holds.
+ */
+public record BulkUserRolesRequest(Set<Long> userIds, UserFilter filter, Set<Long> addRoleIds,
+                                   Set<Long> removeRoleIds) {
+    
+    public record UserFilter(String username, String email, Boolean enabled, Long roleId) {
+    }
+}
\ No newline at end of file
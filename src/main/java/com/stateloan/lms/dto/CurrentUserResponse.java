@@ -0,0 +1,21 @@
+package com.stateloan.lms.dto;
+
+import com.stateloan.lms.security.UserPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * The authenticated user as seen by the security layer, built from the principal without a query.
+ */
+public record CurrentUserResponse(Long id, String username, String email, List<String> roles,
+                                  List<String> authorities) {
+    
+    public static CurrentUserResponse from(UserPrincipal principal) {
+        List<String> authorities = principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        return new CurrentUserResponse(principal.getId(), principal.getUsername(), principal.getEmail(),
+                principal.getRoles(), authorities);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.stateloan.lms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last page; {@code total}
+ * is only present when it was requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPage<T>(List<T> items, String nextCursor, Long total) {
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.stateloan.lms.dto;
+
+/**
+ * Paging parameters of a list endpoint. {@code sort} is {@code id}, {@code createdAt} or, for users,
+ * {@code username}, and {@code direction} is {@code asc} or {@code desc}; a continuation cursor must
+ * be used with the sort it was issued for.
+ */
+public record CursorRequest(String cursor, int size, String sort, String direction, boolean includeTotal) {
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.stateloan.lms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * RFC 7662 token introspection response. Inactive tokens carry no other member.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntrospectionResponse(
+        boolean active,
+        String sub,
+        @JsonProperty("user_id") Long userId,
+        List<String> authorities,
+        @JsonProperty("token_type") String tokenType,
+        Long iat,
+        Long exp,
+        String jti) {
+    
+    public static final IntrospectionResponse INACTIVE =
+            new IntrospectionResponse(false, null, null, null, null, null, null, null);
+    
+    public IntrospectionResponse withAuthorities(List<String> authorities) {
+        return new IntrospectionResponse(active, sub, userId, authorities, tokenType, iat, exp, jti);
+    }
+}
\ No newline at end of file
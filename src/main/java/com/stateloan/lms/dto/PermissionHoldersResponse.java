@@ -0,0 +1,18 @@
+package com.stateloan.lms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One keyset page, by username, of the users holding a permission, or any permission of a resource,
+ * through their roles. {@code nextCursor} is null on the last page; {@code totalUsers} is only present
+ * when it was requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PermissionHoldersResponse(List<String> permissions, List<Long> roleIds, List<Holder> users,
+                                        String nextCursor, Long totalUsers) {
+    
+    public record Holder(Long id, String username, String email, Boolean enabled) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.stateloan.lms.dto;
+
+import com.stateloan.lms.entity.Permission;
+import com.stateloan.lms.repository.PermissionView;
+
+import java.time.LocalDateTime;
+
+public record PermissionResponse(Long id, String name, String description, String resource, String action,
+                                 LocalDateTime createdAt, LocalDateTime updatedAt) {
+    
+    public static PermissionResponse of(Long id, String name, String description, LocalDateTime createdAt,
+                                        LocalDateTime updatedAt) {
+        int separator = name.indexOf(':');
+        return new PermissionResponse(id, name, description,
+                separator >= 0 ? name.substring(0, separator) : name,
+                separator >= 0 ? name.substring(separator + 1) : null,
+                createdAt, updatedAt);
+    }
+    
+    public static PermissionResponse from(Permission permission) {
+        return of(permission.getId(), permission.getName(), permission.getDescription(),
+                permission.getCreatedAt(), permission.getUpdatedAt());
+    }
+    
+    public static PermissionResponse from(PermissionView view) {
+        return of(view.getId(), view.getName(), view.getDescription(), view.getCreatedAt(), view.getUpdatedAt());
+    }
+}
\ No newline at end of file
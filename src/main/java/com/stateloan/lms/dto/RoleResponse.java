@@ -0,0 +1,33 @@
+package com.stateloan.lms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.stateloan.lms.entity.Permission;
+import com.stateloan.lms.entity.Role;
+import com.stateloan.lms.repository.RoleRowView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A role as returned by the API. {@code permissions} holds permission names and is only present on
+ * responses that include them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RoleResponse(Long id, String name, String description, Set<Long> parentIds, List<String> permissions,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+    
+    public static RoleResponse from(Role role) {
+        List<String> permissions = role.getPermissions().stream()
+                .map(Permission::getName)
+                .sorted()
+                .toList();
+        return new RoleResponse(role.getId(), role.getName(), role.getDescription(), Set.copyOf(role.getParentIds()),
+                permissions, role.getCreatedAt(), role.getUpdatedAt());
+    }
+    
+    public static RoleResponse from(RoleRowView view, Set<Long> parentIds, List<String> permissions) {
+        return new RoleResponse(view.getId(), view.getName(), view.getDescription(), parentIds, permissions,
+                view.getCreatedAt(), view.getUpdatedAt());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.stateloan.lms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * A route rule as submitted by an administrator. A blank method applies the rule to every method.
+ */
+public record RoutePermissionRequest(
+        @Size(max = 10) String httpMethod,
+        @NotBlank @Size(max = 255) String pathPattern,
+        @NotBlank String permission,
+        Integer priority) {
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.stateloan.lms.dto;
+
+import com.stateloan.lms.entity.RoutePermission;
+
+public record RoutePermissionResponse(Long id, String httpMethod, String pathPattern, String permission,
+                                      int priority) {
+    
+    public static RoutePermissionResponse from(RoutePermission routePermission) {
+        return new RoutePermissionResponse(
+                routePermission.getId(),
+                routePermission.getHttpMethod(),
+                routePermission.getPathPattern(),
+                routePermission.getPermission().getName(),
+                routePermission.getPriority());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.stateloan.lms.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import. Only the first rejected rows are listed, up to the requested
+ * limit; {@code failed} counts all of them. {@code abortedReason} is set when the import stopped
+ * part way; the counts then cover the rows committed before it stopped.
+ */
+public record UserImportReport(long rowsRead, long imported, long failed, List<RowError> errors,
+                               boolean errorsTruncated, String abortedReason) {
+    
+    /** A rejected row by its 1-based line number in the upload. */
+    public record RowError(long line, String username, String message) {
+    }
+}
\ No newline at end of file
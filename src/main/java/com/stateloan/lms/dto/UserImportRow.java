@@ -0,0 +1,10 @@
+package com.stateloan.lms.dto;
+
+import java.util.List;
+
+/**
+ * One account of a bulk import, as an NDJSON line or a CSV record. Without roles the account gets
+ * the default USER role.
+ */
+public record UserImportRow(String username, String email, String password, List<String> roles) {
+}
\ No newline at end of file
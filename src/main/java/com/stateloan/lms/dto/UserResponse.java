@@ -0,0 +1,29 @@
+package com.stateloan.lms.dto;
+
+import com.stateloan.lms.entity.Role;
+import com.stateloan.lms.entity.User;
+import com.stateloan.lms.repository.UserRowView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A user as returned by the API: account fields and role names, never the password hash.
+ */
+public record UserResponse(Long id, String username, String email, Boolean enabled, List<String> roles,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+    
+    public static UserResponse from(User user) {
+        List<String> roles = user.getRoles().stream()
+                .map(Role::getName)
+                .sorted()
+                .toList();
+        return new UserResponse(user.getId(), user.getUsername(), user.getEmail(), user.getEnabled(), roles,
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+    
+    public static UserResponse from(UserRowView view, List<String> roles) {
+        return new UserResponse(view.getId(), view.getUsername(), view.getEmail(), view.getEnabled(), roles,
+                view.getCreatedAt(), view.getUpdatedAt());
+    }
+}
\ No newline at end of file
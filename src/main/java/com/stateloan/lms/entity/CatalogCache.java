@@ -0,0 +1,18 @@
+package com.stateloan.lms.entity;
+
+/**
+ * Second-level cache regions of the role and permission catalog. Sizes and expiry are set per
+ * region in {@code application.conf}.
+ */
+public final class CatalogCache {
+    
+    public static final String ROLES = "catalog-roles";
+    public static final String ROLE_PERMISSIONS = "catalog-role-permissions";
+    public static final String ROLE_PARENTS = "catalog-role-parents";
+    public static final String PERMISSIONS = "catalog-permissions";
+    
+    /** Results of the by-name lookups; invalidated locally through the update timestamps region. */
+    public static final String QUERIES = "catalog-queries";
+    
+    private CatalogCache() {}
+}
\ No newline at end of file
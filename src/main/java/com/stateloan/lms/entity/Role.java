@@ -1,22 +1,34 @@
 package com.stateloan.lms.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCache.ROLES)
+// Detail and mutation: own permissions and parents, so the role can be changed and returned
+@NamedEntityGraph(name = Role.GRAPH_DETAIL,
+    attributeNodes = {@NamedAttributeNode("permissions"), @NamedAttributeNode("parents")})
 @Table(name = "roles",
        uniqueConstraints = @UniqueConstraint(columnNames = "name"))
 public class Role {
     
+    public static final String GRAPH_DETAIL = "Role.detail";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_id_seq")
+    @SequenceGenerator(name = "roles_id_seq", sequenceName = "roles_id_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -39,7 +51,8 @@ public class Role {
     @ManyToMany(mappedBy = "roles")
     private Set<User> users = new HashSet<>();
     
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCache.ROLE_PERMISSIONS)
     @JoinTable(
         name = "role_permissions",
         joinColumns = @JoinColumn(name = "role_id"),
@@ -47,6 +60,21 @@ public class Role {
     )
     private Set<Permission> permissions = new HashSet<>();
     
+    // Roles whose permissions this role inherits
+    @JsonIgnore
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCache.ROLE_PARENTS)
+    @JoinTable(
+        name = "role_parents",
+        joinColumns = @JoinColumn(name = "role_id"),
+        inverseJoinColumns = @JoinColumn(name = "parent_id")
+    )
+    private Set<Role> parents = new HashSet<>();
+    
+    // Parent ids as submitted in a create or update request
+    @Transient
+    private Set<Long> parentIds;
+    
     public Role() {}
     
     public Role(String name, String description) {
@@ -111,14 +139,38 @@ public class Role {
         this.permissions = permissions;
     }
     
+    public Set<Role> getParents() {
+        return parents;
+    }
+    
+    public void setParents(Set<Role> parents) {
+        this.parents = parents;
+    }
+    
+    public Set<Long> getParentIds() {
+        if (parentIds != null) {
+            return parentIds;
+        }
+        return parents.stream().map(Role::getId).collect(Collectors.toSet());
+    }
+    
+    public void setParentIds(Set<Long> parentIds) {
+        this.parentIds = parentIds;
+    }
+    
+    // Null unless the request carried parentIds, in which case they replace the current parents
+    @JsonIgnore
+    public Set<Long> getRequestedParentIds() {
+        return parentIds;
+    }
+    
+    // Only the owning side is kept in step; touching Permission.roles would load every role granting it
     public void addPermission(Permission permission) {
         this.permissions.add(permission);
-        permission.getRoles().add(this);
     }
     
     public void removePermission(Permission permission) {
         this.permissions.remove(permission);
-        permission.getRoles().remove(this);
     }
     
     @Override
@@ -0,0 +1,136 @@
+package com.stateloan.lms.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maps an HTTP method and path pattern to the permission required to call it. A null method
+ * matches any method; among matching rules the highest priority, then the most specific pattern wins.
+ */
+@Entity
+@Table(name = "route_permissions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"http_method", "path_pattern"}))
+public class RoutePermission {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Size(max = 10)
+    @Column(name = "http_method", length = 10)
+    private String httpMethod;
+    
+    @NotBlank
+    @Size(max = 255)
+    @Column(name = "path_pattern", nullable = false)
+    private String pathPattern;
+    
+    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @JoinColumn(name = "permission_id", nullable = false)
+    private Permission permission;
+    
+    @Column(name = "priority", nullable = false)
+    private int priority;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public RoutePermission() {}
+    
+    public RoutePermission(String httpMethod, String pathPattern, Permission permission, int priority) {
+        this.httpMethod = httpMethod;
+        this.pathPattern = pathPattern;
+        this.permission = permission;
+        this.priority = priority;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+    
+    public void setHttpMethod(String httpMethod) {
+        this.httpMethod = httpMethod;
+    }
+    
+    public String getPathPattern() {
+        return pathPattern;
+    }
+    
+    public void setPathPattern(String pathPattern) {
+        this.pathPattern = pathPattern;
+    }
+    
+    public Permission getPermission() {
+        return permission;
+    }
+    
+    public void setPermission(Permission permission) {
+        this.permission = permission;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RoutePermission)) return false;
+        RoutePermission routePermission = (RoutePermission) o;
+        return id != null && id.equals(routePermission.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return "RoutePermission{" +
+                "id=" + id +
+                ", httpMethod='" + httpMethod + '\'' +
+                ", pathPattern='" + pathPattern + '\'' +
+                ", priority=" + priority +
+                '}';
+    }
+}
\ No newline at end of file
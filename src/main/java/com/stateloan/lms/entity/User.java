@@ -1,5 +1,6 @@
 package com.stateloan.lms.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -12,15 +13,34 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@NamedEntityGraphs({
+    // Principal building: roles and, for roles the hierarchy closure has not seen yet, their permissions
+    @NamedEntityGraph(name = User.GRAPH_AUTHENTICATION,
+        attributeNodes = @NamedAttributeNode(value = "roles", subgraph = "role-permissions"),
+        subgraphs = @NamedSubgraph(name = "role-permissions", attributeNodes = @NamedAttributeNode("permissions"))),
+    // Role assignment and account updates
+    @NamedEntityGraph(name = User.GRAPH_ROLES, attributeNodes = @NamedAttributeNode("roles"))
+})
 @Table(name = "users", 
        uniqueConstraints = {
            @UniqueConstraint(columnNames = "username"),
            @UniqueConstraint(columnNames = "email")
+       },
+       indexes = {
+           @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+           @Index(name = "idx_users_username_id", columnList = "username, id")
        })
 public class User {
     
+    public static final String GRAPH_AUTHENTICATION = "User.authentication";
+    public static final String GRAPH_ROLES = "User.roles";
+    
+    // Pooled sequence ids, so inserts can be batched; see db/pooled-sequences.sql for existing databases
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
+    // Also the column default, which the native registration insert in UserRepository relies on
+    @Column(columnDefinition = "bigint default nextval('users_id_seq')")
     private Long id;
     
     @NotBlank
@@ -36,12 +56,17 @@ public class User {
     
     @NotBlank
     @Size(min = 6, max = 255)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "password", nullable = false)
     private String password;
     
     @Column(name = "enabled", nullable = false)
     private Boolean enabled = true;
     
+    // Bumped whenever the user's effective authorities change; stamped into issued tokens
+    @Column(name = "authz_version", nullable = false, columnDefinition = "bigint default 0")
+    private Long authzVersion = 0L;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -50,11 +75,12 @@ public class User {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "role_id")
+        inverseJoinColumns = @JoinColumn(name = "role_id"),
+        indexes = @Index(name = "idx_user_roles_role_id", columnList = "role_id")
     )
     private Set<Role> roles = new HashSet<>();
     
@@ -108,6 +134,14 @@ public class User {
         this.enabled = enabled;
     }
     
+    public Long getAuthzVersion() {
+        return authzVersion;
+    }
+    
+    public void setAuthzVersion(Long authzVersion) {
+        this.authzVersion = authzVersion;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -132,14 +166,13 @@ public class User {
         this.roles = roles;
     }
     
+    // Only the owning side is kept in step; touching Role.users would load every holder of the role
     public void addRole(Role role) {
         this.roles.add(role);
-        role.getUsers().add(this);
     }
     
     public void removeRole(Role role) {
         this.roles.remove(role);
-        role.getUsers().remove(this);
     }
     
     @Override
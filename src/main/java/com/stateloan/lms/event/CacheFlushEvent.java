@@ -0,0 +1,8 @@
+package com.stateloan.lms.event;
+
+/**
+ * Asks every in-memory authorization cache to drop or reload its whole content, used when
+ * precise change notifications may have been lost.
+ */
+public record CacheFlushEvent(String reason) {
+}
\ No newline at end of file
@@ -0,0 +1,267 @@
+package com.stateloan.lms.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Keeps the in-memory authorization caches of every instance in step over Postgres LISTEN/NOTIFY.
+ * Local change events are sent with {@code pg_notify} inside the publishing transaction, so other
+ * instances only hear about committed changes. Each instance listens on one dedicated connection
+ * and replays the notifications of other instances as the same local events, which evict exactly
+ * what changed. Whenever the listener (re)connects it publishes a {@link CacheFlushEvent}, because
+ * notifications sent while it was disconnected are lost.
+ */
+@Component
+public class ClusterEventRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterEventRelay.class);
+    
+    // Postgres rejects notification payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    
+    // Set while a remote message is replayed so the resulting local events are not sent back out
+    private static final ThreadLocal<Boolean> replaying = ThreadLocal.withInitial(() -> false);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${cluster.notify.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${cluster.notify.channel:lms_cache}")
+    private String channel;
+    
+    @Value("${cluster.notify.poll-timeout:PT30S}")
+    private Duration pollTimeout;
+    
+    @Value("${cluster.notify.reconnect-delay:PT5S}")
+    private Duration reconnectDelay;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    private Counter sentCounter;
+    private Counter receivedCounter;
+    private Counter flushCounter;
+    
+    private volatile boolean running;
+    private Thread listenerThread;
+    
+    @PostConstruct
+    public void init() {
+        sentCounter = Counter.builder("cluster.notifications").tag("direction", "sent").register(meterRegistry);
+        receivedCounter = Counter.builder("cluster.notifications").tag("direction", "received").register(meterRegistry);
+        flushCounter = Counter.builder("cluster.cache.flushes").register(meterRegistry);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserAuthorizationChanged(UserAuthorizationChangedEvent event) {
+        send(ClusterMessage.userAuthorization(nodeId, event));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRoleHoldersChanged(RoleHoldersChangedEvent event) {
+        send(ClusterMessage.roleHolders(nodeId, event));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserIdentifiersAdded(UserIdentifiersAddedEvent event) {
+        send(ClusterMessage.userIdentifiers(nodeId, event));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPermissionCatalogChanged(PermissionCatalogChangedEvent event) {
+        send(ClusterMessage.of(nodeId, ClusterMessage.Type.PERMISSION_CATALOG, event.permissionId()));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRoleGraphChanged(RoleGraphChangedEvent event) {
+        send(ClusterMessage.of(nodeId, ClusterMessage.Type.ROLE_GRAPH, event.roleId()));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRoutePermissionsChanged(RoutePermissionsChangedEvent event) {
+        send(ClusterMessage.of(nodeId, ClusterMessage.Type.ROUTE_PERMISSIONS, event.routePermissionId()));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        send(ClusterMessage.tokenRevoked(nodeId, event));
+    }
+    
+    private void send(ClusterMessage message) {
+        if (!enabled || replaying.get()) {
+            return;
+        }
+        
+        String payload = serialize(message);
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            logger.debug("{} notification too large, sending a flush instead", message.type());
+            payload = serialize(ClusterMessage.flush(nodeId));
+        }
+        
+        String notification = payload;
+        jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) statement -> {
+            statement.setString(1, channel);
+            statement.setString(2, notification);
+            return statement.execute();
+        });
+        sentCounter.increment();
+    }
+    
+    private String serialize(ClusterMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize cluster message", e);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Cluster cache notifications are disabled");
+            return;
+        }
+        
+        running = true;
+        listenerThread = new Thread(this::listen, "cluster-notify-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+    
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+                }
+                logger.info("Listening for cluster cache notifications on channel {} as node {}", channel, nodeId);
+                
+                // Anything sent before LISTEN took effect was missed
+                flush("listener connected");
+                
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications == null || notifications.length == 0) {
+                        if (!connection.isValid(5)) {
+                            throw new SQLException("Notification connection is no longer valid");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Cluster notification listener lost its connection, reconnecting in {}: {}",
+                            reconnectDelay, e.getMessage());
+                    sleep(reconnectDelay);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Cluster notification listener failed, reconnecting in {}", reconnectDelay, e);
+                sleep(reconnectDelay);
+            }
+        }
+    }
+    
+    private void handle(String payload) {
+        ClusterMessage message;
+        try {
+            message = objectMapper.readValue(payload, ClusterMessage.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed cluster notification: {}", e.getMessage());
+            return;
+        }
+        
+        if (nodeId.equals(message.node())) {
+            return;
+        }
+        receivedCounter.increment();
+        
+        replaying.set(true);
+        try {
+            switch (message.type()) {
+                case USER_AUTHORIZATION -> eventPublisher.publishEvent(
+                        new UserAuthorizationChangedEvent(message.authzVersions(), message.usernames()));
+                case ROLE_HOLDERS -> eventPublisher.publishEvent(new RoleHoldersChangedEvent(message.roleIds()));
+                case USER_IDENTIFIERS -> eventPublisher.publishEvent(
+                        new UserIdentifiersAddedEvent(message.usernames(), message.emails()));
+                case PERMISSION_CATALOG -> eventPublisher.publishEvent(new PermissionCatalogChangedEvent(message.id()));
+                case ROLE_GRAPH -> eventPublisher.publishEvent(new RoleGraphChangedEvent(message.id()));
+                case ROUTE_PERMISSIONS -> eventPublisher.publishEvent(new RoutePermissionsChangedEvent(message.id()));
+                case TOKEN_REVOKED -> eventPublisher.publishEvent(
+                        new TokenRevokedEvent(message.jti(), Instant.ofEpochMilli(message.expiresAt())));
+                case FLUSH -> flush("flush requested by node " + message.node());
+            }
+        } finally {
+            replaying.set(false);
+        }
+    }
+    
+    private void flush(String reason) {
+        logger.info("Flushing authorization caches: {}", reason);
+        flushCounter.increment();
+        eventPublisher.publishEvent(new CacheFlushEvent(reason));
+    }
+    
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.stateloan.lms.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wire form of a local change event, sent to the other instances as a Postgres notification.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClusterMessage(String node, Type type, Long id, Set<Long> roleIds, Map<Long, Long> authzVersions,
+                             Set<String> usernames, Set<String> emails, String jti, Long expiresAt) {
+    
+    public enum Type {
+        USER_AUTHORIZATION, ROLE_HOLDERS, USER_IDENTIFIERS, PERMISSION_CATALOG, ROLE_GRAPH, ROUTE_PERMISSIONS,
+        TOKEN_REVOKED, FLUSH
+    }
+    
+    public static ClusterMessage of(String node, Type type, Long id) {
+        return new ClusterMessage(node, type, id, null, null, null, null, null, null);
+    }
+    
+    public static ClusterMessage userAuthorization(String node, UserAuthorizationChangedEvent event) {
+        return new ClusterMessage(node, Type.USER_AUTHORIZATION, null, null, event.authzVersions(),
+                event.usernames(), null, null, null);
+    }
+    
+    public static ClusterMessage roleHolders(String node, RoleHoldersChangedEvent event) {
+        return new ClusterMessage(node, Type.ROLE_HOLDERS, null, event.roleIds(), null, null, null, null, null);
+    }
+    
+    public static ClusterMessage userIdentifiers(String node, UserIdentifiersAddedEvent event) {
+        return new ClusterMessage(node, Type.USER_IDENTIFIERS, null, null, null, event.usernames(), event.emails(),
+                null, null);
+    }
+    
+    public static ClusterMessage tokenRevoked(String node, TokenRevokedEvent event) {
+        return new ClusterMessage(node, Type.TOKEN_REVOKED, null, null, null, null, null, event.jti(),
+                event.expiresAt().toEpochMilli());
+    }
+    
+    public static ClusterMessage flush(String node) {
+        return new ClusterMessage(node, Type.FLUSH, null, null, null, null, null, null, null);
+    }
+}
\ No newline at end of file
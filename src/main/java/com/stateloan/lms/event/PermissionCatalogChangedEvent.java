@@ -0,0 +1,7 @@
+package com.stateloan.lms.event;
+
+/**
+ * Published when a permission is created, renamed or deleted.
+ */
+public record PermissionCatalogChangedEvent(Long permissionId) {
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.stateloan.lms.event;
+
+/**
+ * Published when a role is created, updated or deleted, or its direct permissions change.
+ */
+public record RoleGraphChangedEvent(Long roleId) {
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.stateloan.lms.event;
+
+import java.util.Set;
+
+/**
+ * Published instead of per-user {@link UserAuthorizationChangedEvent}s when a role change bumps the
+ * authorization version of too many users to list. Each instance reads the new versions of the
+ * roles' holders itself and drops its cached principals.
+ */
+public record RoleHoldersChangedEvent(Set<Long> roleIds) {
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.stateloan.lms.event;
+
+/**
+ * Published when a route permission rule is created, updated or deleted.
+ */
+public record RoutePermissionsChangedEvent(Long routePermissionId) {
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.stateloan.lms.event;
+
+import java.time.Instant;
+
+/**
+ * Published when a token id is added to the revocation denylist.
+ */
+public record TokenRevokedEvent(String jti, Instant expiresAt) {
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.stateloan.lms.event;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published when the roles, permissions or account details behind one or more users change.
+ * Carries the new authorization version of every affected user and the usernames whose
+ * cached principals must be evicted.
+ */
+public record UserAuthorizationChangedEvent(Map<Long, Long> authzVersions, Set<String> usernames) {
+}
\ No newline at end of file
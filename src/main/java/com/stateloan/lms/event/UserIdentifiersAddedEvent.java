@@ -0,0 +1,10 @@
+package com.stateloan.lms.event;
+
+import java.util.Set;
+
+/**
+ * Published when usernames or email addresses are taken, by a new account or a changed one, so the
+ * availability filters can record them.
+ */
+public record UserIdentifiersAddedEvent(Set<String> usernames, Set<String> emails) {
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.stateloan.lms.exception;
+
+/**
+ * Thrown when a write collides with existing data, such as a username that is already taken.
+ * Mapped to 409 Conflict.
+ */
+public class ConflictException extends RuntimeException {
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
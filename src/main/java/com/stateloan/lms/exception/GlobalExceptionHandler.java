@@ -1,116 +1,214 @@
 package com.stateloan.lms.exception;
 
-import com.stateloan.lms.dto.MessageResponse;
+import com.stateloan.lms.util.RateLimitedLogger;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
-import java.time.LocalDateTime;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Maps exceptions to RFC 7807 problem details. Only unexpected errors are logged with a stack
+ * trace; business errors log their message, and client-driven security failures are rate limited.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    // unique_violation and foreign_key_violation
+    private static final Set<String> CONFLICT_SQL_STATES = Set.of("23505", "23503");
+    
+    private static final RateLimitedLogger securityLogger = new RateLimitedLogger(logger, 10, Duration.ofSeconds(10));
+    
+    // Malformed requests and unknown paths are mostly scanners; they never log a stack trace
+    private static final RateLimitedLogger clientErrorLogger = new RateLimitedLogger(logger, 10, Duration.ofSeconds(10));
+    
+    @Autowired
+    private ProblemResponseWriter problemResponseWriter;
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationExceptions(
-            MethodArgumentNotValidException ex, WebRequest request) {
+    public ResponseEntity<byte[]> handleValidationExceptions(
+            MethodArgumentNotValidException ex, HttpServletRequest request) {
         
-        Map<String, Object> response = new HashMap<>();
         Map<String, String> errors = new HashMap<>();
         
         ex.getBindingResult().getAllErrors().forEach((error) -> {
-            String fieldName = ((FieldError) error).getField();
+            String fieldName = error instanceof FieldError fieldError ? fieldError.getField() : error.getObjectName();
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
         
-        response.put("timestamp", LocalDateTime.now());
-        response.put("status", HttpStatus.BAD_REQUEST.value());
-        response.put("error", "Validation Failed");
-        response.put("message", "Input validation failed");
-        response.put("errors", errors);
-        response.put("path", request.getDescription(false).replace("uri=", ""));
-        
         logger.warn("Validation error: {}", errors);
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        return problemResponseWriter.toResponseEntity(ProblemType.VALIDATION_FAILED, null,
+                request.getRequestURI(), Map.of("errors", errors));
     }
     
+    /**
+     * Services signal business rule violations with a plain {@link RuntimeException} or an
+     * {@link IllegalArgumentException}; any other subclass without a handler of its own is treated
+     * as unexpected.
+     */
     @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<MessageResponse> handleRuntimeException(RuntimeException ex, WebRequest request) {
-        logger.error("Runtime exception: {}", ex.getMessage(), ex);
-        return ResponseEntity.badRequest()
-                .body(new MessageResponse("Error: " + ex.getMessage()));
+    public ResponseEntity<byte[]> handleRuntimeException(RuntimeException ex, HttpServletRequest request) {
+        if (ex.getClass() != RuntimeException.class && !(ex instanceof IllegalArgumentException)) {
+            return handleGlobalException(ex, request);
+        }
+        
+        logger.warn("Request to {} rejected: {}", request.getRequestURI(), ex.getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.BAD_REQUEST, ex.getMessage(),
+                request.getRequestURI(), null);
     }
     
-    @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<Map<String, Object>> handleBadCredentialsException(
-            BadCredentialsException ex, WebRequest request) {
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<byte[]> handleIllegalStateException(IllegalStateException ex, HttpServletRequest request) {
+        logger.warn("Request to {} rejected: {}", request.getRequestURI(), ex.getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.BAD_REQUEST, ex.getMessage(),
+                request.getRequestURI(), null);
+    }
+    
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<byte[]> handleHttpMessageNotReadableException(
+            HttpMessageNotReadableException ex, HttpServletRequest request) {
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", LocalDateTime.now());
-        response.put("status", HttpStatus.UNAUTHORIZED.value());
-        response.put("error", "Unauthorized");
-        response.put("message", "Invalid username or password");
-        response.put("path", request.getDescription(false).replace("uri=", ""));
+        clientErrorLogger.warn("Unreadable request body for {}: {}", request.getRequestURI(), ex.getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.MALFORMED_REQUEST, request.getRequestURI());
+    }
+    
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<byte[]> handleMethodArgumentTypeMismatchException(
+            MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
         
-        logger.warn("Authentication failed: {}", ex.getMessage());
-        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+        clientErrorLogger.warn("Invalid value for {} on {}", ex.getName(), request.getRequestURI());
+        return problemResponseWriter.toResponseEntity(ProblemType.BAD_REQUEST,
+                "Invalid value for parameter '" + ex.getName() + "'", request.getRequestURI(), null);
     }
     
-    @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<Map<String, Object>> handleAuthenticationException(
-            AuthenticationException ex, WebRequest request) {
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<byte[]> handleMissingServletRequestParameterException(
+            MissingServletRequestParameterException ex, HttpServletRequest request) {
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", LocalDateTime.now());
-        response.put("status", HttpStatus.UNAUTHORIZED.value());
-        response.put("error", "Unauthorized");
-        response.put("message", "Authentication failed");
-        response.put("path", request.getDescription(false).replace("uri=", ""));
+        clientErrorLogger.warn("Missing parameter {} on {}", ex.getParameterName(), request.getRequestURI());
+        return problemResponseWriter.toResponseEntity(ProblemType.BAD_REQUEST,
+                "Missing parameter '" + ex.getParameterName() + "'", request.getRequestURI(), null);
+    }
+    
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<byte[]> handleNoResourceFoundException(
+            NoResourceFoundException ex, HttpServletRequest request) {
         
-        logger.warn("Authentication exception: {}", ex.getMessage());
-        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+        clientErrorLogger.warn("No resource at {}", request.getRequestURI());
+        return problemResponseWriter.toResponseEntity(ProblemType.NOT_FOUND, request.getRequestURI());
     }
     
-    @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<Map<String, Object>> handleAccessDeniedException(
-            AccessDeniedException ex, WebRequest request) {
+    @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
+    public ResponseEntity<byte[]> handleHttpRequestMethodNotSupportedException(
+            HttpRequestMethodNotSupportedException ex, HttpServletRequest request) {
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", LocalDateTime.now());
-        response.put("status", HttpStatus.FORBIDDEN.value());
-        response.put("error", "Forbidden");
-        response.put("message", "Access denied");
-        response.put("path", request.getDescription(false).replace("uri=", ""));
+        clientErrorLogger.warn("Method {} not supported on {}", ex.getMethod(), request.getRequestURI());
+        Set<HttpMethod> supported = ex.getSupportedHttpMethods();
+        return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .allow(supported != null ? supported.toArray(HttpMethod[]::new) : new HttpMethod[0])
+                .body(problemResponseWriter.render(ProblemType.METHOD_NOT_ALLOWED, null,
+                        request.getRequestURI(), null));
+    }
+    
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<byte[]> handleHttpMediaTypeNotSupportedException(
+            HttpMediaTypeNotSupportedException ex, HttpServletRequest request) {
         
-        logger.warn("Access denied: {}", ex.getMessage());
-        return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+        clientErrorLogger.warn("Content type {} not supported on {}", ex.getContentType(), request.getRequestURI());
+        return problemResponseWriter.toResponseEntity(ProblemType.UNSUPPORTED_MEDIA_TYPE, request.getRequestURI());
     }
     
-    @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGlobalException(
-            Exception ex, WebRequest request) {
+    // Key collisions and references to rows deleted concurrently are conflicts; a NOT NULL or check
+    // violation is a bug and stays a 500. The constraint name stays in the log
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<byte[]> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, HttpServletRequest request) {
+        
+        if (!(ex.getMostSpecificCause() instanceof SQLException sqlException) ||
+                !CONFLICT_SQL_STATES.contains(sqlException.getSQLState())) {
+            return handleGlobalException(ex, request);
+        }
+        logger.warn("Request to {} violates a constraint: {}", request.getRequestURI(),
+                ex.getMostSpecificCause().getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.CONFLICT, request.getRequestURI());
+    }
+    
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<byte[]> handleConflictException(ConflictException ex, HttpServletRequest request) {
+        logger.warn("Request to {} conflicts: {}", request.getRequestURI(), ex.getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.CONFLICT, ex.getMessage(),
+                request.getRequestURI(), null);
+    }
+    
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<byte[]> handleTooManyRequestsException(
+            TooManyRequestsException ex, HttpServletRequest request) {
+        
+        securityLogger.warn("Request shed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(problemResponseWriter.render(ProblemType.TOO_MANY_REQUESTS, ex.getMessage(),
+                        request.getRequestURI(), null));
+    }
+    
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<byte[]> handleBadCredentialsException(
+            BadCredentialsException ex, HttpServletRequest request) {
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", LocalDateTime.now());
-        response.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        response.put("error", "Internal Server Error");
-        response.put("message", "An unexpected error occurred");
-        response.put("path", request.getDescription(false).replace("uri=", ""));
+        securityLogger.warn("Authentication failed: {}", ex.getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.BAD_CREDENTIALS, request.getRequestURI());
+    }
+    
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<byte[]> handleAuthenticationException(
+            AuthenticationException ex, HttpServletRequest request) {
+        
+        securityLogger.warn("Authentication exception: {}", ex.getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.AUTHENTICATION_FAILED, request.getRequestURI());
+    }
+    
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<byte[]> handleAccessDeniedException(
+            AccessDeniedException ex, HttpServletRequest request) {
+        
+        securityLogger.warn("Access denied to {}: {}", request.getRequestURI(), ex.getMessage());
+        return problemResponseWriter.toResponseEntity(ProblemType.ACCESS_DENIED, request.getRequestURI());
+    }
+    
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleGlobalException(
+            Exception ex, HttpServletRequest request) {
         
         logger.error("Unexpected error: {}", ex.getMessage(), ex);
-        return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        return problemResponseWriter.toResponseEntity(ProblemType.INTERNAL_ERROR, request.getRequestURI());
     }
 }
\ No newline at end of file
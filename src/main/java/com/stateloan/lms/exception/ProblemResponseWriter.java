@@ -0,0 +1,128 @@
+package com.stateloan.lms.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Renders RFC 7807 problem details for both the security filters and the controller advice.
+ * The constant part of every body (type, title, status and default detail) is serialized once per
+ * {@link ProblemType}; a response only appends the escaped request path and a timestamp.
+ */
+@Component
+public class ProblemResponseWriter {
+    
+    private static final byte[] DETAIL = bytes(",\"detail\":\"");
+    private static final byte[] INSTANCE = bytes(",\"instance\":\"");
+    private static final byte[] TIMESTAMP = bytes("\",\"timestamp\":");
+    private static final byte[] EXTENSION_SEPARATOR = bytes(",\"");
+    private static final byte[] EXTENSION_ASSIGNMENT = bytes("\":");
+    private static final byte[] END = bytes("}");
+    
+    private final ObjectMapper objectMapper;
+    
+    // {"type":"about:blank","title":"...","status":NNN
+    private final Map<ProblemType, byte[]> heads = new EnumMap<>(ProblemType.class);
+    // {"type":"about:blank","title":"...","status":NNN,"detail":"<default detail>"
+    private final Map<ProblemType, byte[]> templates = new EnumMap<>(ProblemType.class);
+    
+    public ProblemResponseWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        
+        for (ProblemType type : ProblemType.values()) {
+            String head = "{\"type\":\"about:blank\",\"title\":\"" + escape(type.getTitle()) +
+                    "\",\"status\":" + type.getStatus().value();
+            heads.put(type, bytes(head));
+            templates.put(type, bytes(head + ",\"detail\":\"" + escape(type.getDefaultDetail()) + "\""));
+        }
+    }
+    
+    /**
+     * Writes the problem with its default detail straight to the servlet response, for filters and
+     * entry points that run outside Spring MVC.
+     */
+    public void write(HttpServletResponse response, ProblemType type, String instance) throws IOException {
+        response.setStatus(type.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        
+        ServletOutputStream out = response.getOutputStream();
+        out.write(templates.get(type));
+        out.write(INSTANCE);
+        writeTail(out, instance);
+        out.flush();
+    }
+    
+    public ResponseEntity<byte[]> toResponseEntity(ProblemType type, String instance) {
+        return toResponseEntity(type, null, instance, null);
+    }
+    
+    public ResponseEntity<byte[]> toResponseEntity(ProblemType type, String detail, String instance,
+                                                   Map<String, ?> extensions) {
+        return ResponseEntity.status(type.getStatus())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(render(type, detail, instance, extensions));
+    }
+    
+    /**
+     * Renders the problem with a specific detail (the default when null) and optional extension
+     * members, which are serialized with the application's object mapper.
+     */
+    public byte[] render(ProblemType type, String detail, String instance, Map<String, ?> extensions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try {
+            if (detail == null) {
+                out.write(templates.get(type));
+            } else {
+                out.write(heads.get(type));
+                out.write(DETAIL);
+                out.write(JsonStringEncoder.getInstance().quoteAsUTF8(detail));
+                out.write('"');
+            }
+            
+            if (extensions != null) {
+                for (Map.Entry<String, ?> extension : extensions.entrySet()) {
+                    out.write(EXTENSION_SEPARATOR);
+                    out.write(JsonStringEncoder.getInstance().quoteAsUTF8(extension.getKey()));
+                    out.write(EXTENSION_ASSIGNMENT);
+                    out.write(objectMapper.writeValueAsBytes(extension.getValue()));
+                }
+            }
+            
+            out.write(INSTANCE);
+            writeTail(out, instance);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize problem extension", e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    // "<instance>","timestamp":<epoch millis>}
+    private static void writeTail(OutputStream out, String instance) throws IOException {
+        out.write(JsonStringEncoder.getInstance().quoteAsUTF8(instance != null ? instance : ""));
+        out.write(TIMESTAMP);
+        out.write(bytes(Long.toString(System.currentTimeMillis())));
+        out.write(END);
+    }
+    
+    private static String escape(String value) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(value));
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.stateloan.lms.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The error responses of the API. Each has a fixed title and default detail, so its RFC 7807 body
+ * can be serialized once at startup.
+ */
+public enum ProblemType {
+    
+    UNAUTHORIZED(HttpStatus.UNAUTHORIZED, "Full authentication is required to access this resource"),
+    BAD_CREDENTIALS(HttpStatus.UNAUTHORIZED, "Invalid username or password"),
+    AUTHENTICATION_FAILED(HttpStatus.UNAUTHORIZED, "Authentication failed"),
+    ACCESS_DENIED(HttpStatus.FORBIDDEN, "Access denied"),
+    NOT_FOUND(HttpStatus.NOT_FOUND, "No resource exists at this path"),
+    METHOD_NOT_ALLOWED(HttpStatus.METHOD_NOT_ALLOWED, "The request method is not supported by this resource"),
+    UNSUPPORTED_MEDIA_TYPE(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "The request content type is not supported"),
+    BAD_REQUEST(HttpStatus.BAD_REQUEST, "The request could not be processed"),
+    MALFORMED_REQUEST(HttpStatus.BAD_REQUEST, "The request body could not be read"),
+    VALIDATION_FAILED(HttpStatus.BAD_REQUEST, "Input validation failed"),
+    CONFLICT(HttpStatus.CONFLICT, "The request conflicts with existing data"),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "Too many requests, please retry later"),
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+    
+    private final HttpStatus status;
+    private final String defaultDetail;
+    
+    ProblemType(HttpStatus status, String defaultDetail) {
+        this.status = status;
+        this.defaultDetail = defaultDetail;
+    }
+    
+    public HttpStatus getStatus() {
+        return status;
+    }
+    
+    public String getTitle() {
+        return status.getReasonPhrase();
+    }
+    
+    public String getDefaultDetail() {
+        return defaultDetail;
+    }
+}
\ No newline at end of file
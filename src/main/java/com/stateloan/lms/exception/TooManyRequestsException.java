@@ -0,0 +1,19 @@
+package com.stateloan.lms.exception;
+
+/**
+ * Thrown when a request is shed because a bounded resource is saturated or a rate limit is hit.
+ * Mapped to 429 Too Many Requests with a Retry-After header.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.stateloan.lms.exception;
+
+import com.stateloan.lms.dto.UserImportReport;
+
+/**
+ * Thrown when a user import fails part way after some chunks were already committed. Carries the
+ * report of what was written, so the caller can answer with it instead of a bare error.
+ */
+public class UserImportAbortedException extends RuntimeException {
+    
+    private final UserImportReport report;
+    
+    public UserImportAbortedException(UserImportReport report, Throwable cause) {
+        super("User import aborted after " + report.imported() + " imported rows", cause);
+        this.report = report;
+    }
+    
+    public UserImportReport getReport() {
+        return report;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.stateloan.lms.repository;
+
+import com.stateloan.lms.dto.BulkUserRolesRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based writes to the user_roles and role_permissions join tables. Each operation is a single
+ * statement over every selected row, whatever their number; id sets are bound as one array
+ * parameter rather than an IN list, so they are not limited by the number of bind parameters.
+ * These statements bypass Hibernate, so callers publish the change events that evict its caches.
+ */
+@Repository
+public class AssignmentRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /** Inserts the missing assignments and returns the user id of each inserted row. */
+    public List<Long> insertUserRoles(UserSelection users, Collection<Long> roleIds) {
+        return queryIds("INSERT INTO user_roles (user_id, role_id) " +
+                        "SELECT u.id, r.id FROM users u CROSS JOIN unnest(?) AS r(id) WHERE " + users.where() +
+                        " ON CONFLICT DO NOTHING RETURNING user_id",
+                prepend(roleIds, users.args()));
+    }
+    
+    /** Deletes the assignments and returns the user id of each deleted row. */
+    public List<Long> deleteUserRoles(UserSelection users, Collection<Long> roleIds) {
+        return queryIds("DELETE FROM user_roles ur USING users u " +
+                        "WHERE ur.user_id = u.id AND ur.role_id = ANY(?) AND " + users.where() +
+                        " RETURNING ur.user_id",
+                prepend(roleIds, users.args()));
+    }
+    
+    /** Inserts the missing grants and returns the role id of each inserted row. */
+    public List<Long> insertRolePermissions(Collection<Long> roleIds, Collection<Long> permissionIds) {
+        return queryIds("INSERT INTO role_permissions (role_id, permission_id) " +
+                        "SELECT r.id, p.id FROM unnest(?) AS r(id) CROSS JOIN unnest(?) AS p(id) " +
+                        "ON CONFLICT DO NOTHING RETURNING role_id",
+                List.of(ids(roleIds), ids(permissionIds)));
+    }
+    
+    /** Deletes the grants and returns the role id of each deleted row. */
+    public List<Long> deleteRolePermissions(Collection<Long> roleIds, Collection<Long> permissionIds) {
+        return queryIds("DELETE FROM role_permissions WHERE role_id = ANY(?) AND permission_id = ANY(?) " +
+                        "RETURNING role_id",
+                List.of(ids(roleIds), ids(permissionIds)));
+    }
+    
+    // [user id, username, new authz version] for every bumped user
+    public List<Object[]> incrementAuthzVersions(Collection<Long> userIds) {
+        return query("UPDATE users SET authz_version = authz_version + 1 WHERE id = ANY(?) " +
+                     "RETURNING id, username, authz_version",
+                List.of(ids(userIds)),
+                (resultSet, rowNum) -> new Object[]{resultSet.getLong(1), resultSet.getString(2), resultSet.getLong(3)});
+    }
+    
+    private List<Long> queryIds(String sql, List<Object> args) {
+        return query(sql, args, (resultSet, rowNum) -> resultSet.getLong(1));
+    }
+    
+    private <T> List<T> query(String sql, List<Object> args, RowMapper<T> rowMapper) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            for (int i = 0; i < args.size(); i++) {
+                if (args.get(i) instanceof Long[] ids) {
+                    statement.setArray(i + 1, connection.createArrayOf("bigint", ids));
+                } else {
+                    statement.setObject(i + 1, args.get(i));
+                }
+            }
+            return statement;
+        }, rowMapper);
+    }
+    
+    private static List<Object> prepend(Collection<Long> first, List<Object> args) {
+        List<Object> all = new ArrayList<>(args.size() + 1);
+        all.add(ids(first));
+        all.addAll(args);
+        return all;
+    }
+    
+    // Typed as Object so List.of keeps the array as one element instead of spreading it
+    private static Object ids(Collection<Long> ids) {
+        return ids.toArray(Long[]::new);
+    }
+    
+    /**
+     * Condition on {@code users u} selecting the users of a bulk operation, with its parameters.
+     */
+    public record UserSelection(String where, List<Object> args) {
+        
+        public static UserSelection byIds(Collection<Long> userIds) {
+            return new UserSelection("u.id = ANY(?)", List.of(ids(userIds)));
+        }
+        
+        /** Returns null when the filter has no criterion. */
+        public static UserSelection byFilter(BulkUserRolesRequest.UserFilter filter) {
+            List<String> conditions = new ArrayList<>();
+            List<Object> args = new ArrayList<>();
+            if (StringUtils.hasText(filter.username())) {
+                conditions.add("u.username LIKE ? ESCAPE '\\'");
+                args.add(ListingSpecifications.escape(filter.username().trim()) + "%");
+            }
+            if (StringUtils.hasText(filter.email())) {
+                conditions.add("u.email LIKE ? ESCAPE '\\'");
+                args.add(ListingSpecifications.escape(filter.email().trim()) + "%");
+            }
+            if (filter.enabled() != null) {
+                conditions.add("u.enabled = ?");
+                args.add(filter.enabled());
+            }
+            if (filter.roleId() != null) {
+                conditions.add("EXISTS (SELECT 1 FROM user_roles held WHERE held.user_id = u.id AND held.role_id = ?)");
+                args.add(filter.roleId());
+            }
+            return conditions.isEmpty() ? null : new UserSelection(String.join(" AND ", conditions), args);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.stateloan.lms.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+/**
+ * Optional filters of the list endpoints. A filter whose value is absent adds no predicate.
+ */
+public final class ListingSpecifications {
+    
+    private static final char ESCAPE = '\\';
+    
+    private ListingSpecifications() {}
+    
+    public static <T> Specification<T> startsWith(String property, String prefix) {
+        return (root, query, cb) -> StringUtils.hasText(prefix)
+                ? cb.like(root.get(property), escape(prefix.trim()) + "%", ESCAPE)
+                : null;
+    }
+    
+    public static <T> Specification<T> endsWith(String property, String suffix) {
+        return (root, query, cb) -> StringUtils.hasText(suffix)
+                ? cb.like(root.get(property), "%" + escape(suffix.trim()), ESCAPE)
+                : null;
+    }
+    
+    public static <T> Specification<T> equalTo(String property, Object value) {
+        return (root, query, cb) -> value != null ? cb.equal(root.get(property), value) : null;
+    }
+    
+    /** Escapes LIKE wildcards for the backslash escape character, also used by native filters. */
+    public static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.stateloan.lms.repository;
 
+import com.stateloan.lms.entity.CatalogCache;
 import com.stateloan.lms.entity.Permission;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +17,8 @@ import java.util.Set;
 @Repository
 public interface PermissionRepository extends JpaRepository<Permission, Long> {
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.QUERIES)})
     Optional<Permission> findByName(String name);
     
     Boolean existsByName(String name);
@@ -23,9 +29,23 @@ public interface PermissionRepository extends JpaRepository<Permission, Long> {
     @Query("SELECT p FROM Permission p WHERE p.name LIKE %:action")
     List<Permission> findByAction(@Param("action") String action);
     
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, " +
+           "p.createdAt AS createdAt, p.updatedAt AS updatedAt FROM Permission p WHERE p.id = :id")
+    Optional<PermissionView> findViewById(@Param("id") Long id);
+    
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, " +
+           "p.createdAt AS createdAt, p.updatedAt AS updatedAt FROM Permission p WHERE p.name LIKE :resource% ORDER BY p.name")
+    List<PermissionView> findViewsByResource(@Param("resource") String resource);
+    
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, " +
+           "p.createdAt AS createdAt, p.updatedAt AS updatedAt FROM Permission p WHERE p.name LIKE %:action ORDER BY p.name")
+    List<PermissionView> findViewsByAction(@Param("action") String action);
+    
     @Query("SELECT p FROM Permission p WHERE p.id IN :permissionIds")
     Set<Permission> findByIdIn(@Param("permissionIds") Set<Long> permissionIds);
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.QUERIES)})
     @Query("SELECT p FROM Permission p WHERE p.name IN :names")
     Set<Permission> findByNameIn(@Param("names") Set<String> names);
 }
\ No newline at end of file
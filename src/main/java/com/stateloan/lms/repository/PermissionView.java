@@ -0,0 +1,16 @@
+package com.stateloan.lms.repository;
+
+import java.time.LocalDateTime;
+
+public interface PermissionView {
+    
+    Long getId();
+    
+    String getName();
+    
+    String getDescription();
+    
+    LocalDateTime getCreatedAt();
+    
+    LocalDateTime getUpdatedAt();
+}
\ No newline at end of file
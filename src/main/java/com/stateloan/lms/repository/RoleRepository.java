@@ -1,27 +1,75 @@
 package com.stateloan.lms.repository;
 
+import com.stateloan.lms.entity.CatalogCache;
 import com.stateloan.lms.entity.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.QUERIES)})
     Optional<Role> findByName(String name);
     
+    @Query("SELECT r.id AS id, r.name AS name, r.description AS description, " +
+           "r.createdAt AS createdAt, r.updatedAt AS updatedAt FROM Role r WHERE r.id = :id")
+    Optional<RoleRowView> findRowById(@Param("id") Long id);
+    
+    @Query("SELECT r.id, p.id FROM Role r JOIN r.parents p WHERE r.id IN :roleIds")
+    List<Object[]> findParentEdgesByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+    
+    @Query("SELECT p.name FROM Role r JOIN r.permissions p WHERE r.id = :roleId ORDER BY p.name")
+    List<String> findPermissionNamesByRoleId(@Param("roleId") Long roleId);
+    
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.QUERIES)})
+    @Query("SELECT r.id FROM Role r WHERE r.name = :name")
+    Optional<Long> findIdByName(@Param("name") String name);
+    
+    // [role name, role id] for every role
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.QUERIES)})
+    @Query("SELECT r.name, r.id FROM Role r")
+    List<Object[]> findAllNamesAndIds();
+    
     Boolean existsByName(String name);
     
-    @Query("SELECT r FROM Role r JOIN FETCH r.permissions WHERE r.id = :id")
+    // Mutation and detail: outer-joins permissions and parents, so a role without either is still found
+    @EntityGraph(Role.GRAPH_DETAIL)
+    @Query("SELECT r FROM Role r WHERE r.id = :id")
     Optional<Role> findByIdWithPermissions(@Param("id") Long id);
     
-    @Query("SELECT r FROM Role r JOIN FETCH r.permissions WHERE r.name = :name")
+    @EntityGraph(Role.GRAPH_DETAIL)
+    @Query("SELECT r FROM Role r WHERE r.name = :name")
     Optional<Role> findByNameWithPermissions(@Param("name") String name);
     
     @Query("SELECT r FROM Role r WHERE r.id IN :roleIds")
     Set<Role> findByIdIn(@Param("roleIds") Set<Long> roleIds);
+    
+    // [role id, parent role id] for every inheritance edge
+    @Query("SELECT r.id, p.id FROM Role r JOIN r.parents p")
+    List<Object[]> findAllParentEdges();
+    
+    // [role id, permission id] for every direct grant
+    @Query("SELECT r.id, p.id FROM Role r JOIN r.permissions p")
+    List<Object[]> findAllPermissionGrants();
+    
+    // Declares the table it touches, so Hibernate only invalidates the cached parent collections
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "role_parents"))
+    @Query(value = "DELETE FROM role_parents WHERE parent_id = :roleId", nativeQuery = true)
+    int deleteChildLinks(@Param("roleId") Long roleId);
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.stateloan.lms.repository;
+
+import com.stateloan.lms.entity.RoutePermission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RoutePermissionRepository extends JpaRepository<RoutePermission, Long> {
+    
+    @Query("SELECT r FROM RoutePermission r JOIN FETCH r.permission ORDER BY r.id")
+    List<RoutePermission> findAllWithPermission();
+    
+    Boolean existsByPathPattern(String pathPattern);
+    
+    long countByPermissionId(Long permissionId);
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.stateloan.lms.repository;
+
+public interface UserAuthzVersionView {
+    
+    Long getId();
+    
+    String getUsername();
+    
+    Long getAuthzVersion();
+}
\ No newline at end of file
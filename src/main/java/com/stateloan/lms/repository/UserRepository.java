@@ -1,11 +1,19 @@
 package com.stateloan.lms.repository;
 
 import com.stateloan.lms.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,9 +27,52 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Boolean existsByEmail(String email);
     
-    @Query("SELECT u FROM User u JOIN FETCH u.roles r JOIN FETCH r.permissions WHERE u.username = :username")
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.enabled AS enabled, " +
+           "u.createdAt AS createdAt, u.updatedAt AS updatedAt FROM User u WHERE u.id = :id")
+    Optional<UserRowView> findRowById(@Param("id") Long id);
+    
+    @Query("SELECT u.id, r.name FROM User u JOIN u.roles r WHERE u.id IN :userIds ORDER BY r.name")
+    List<Object[]> findRoleNamesByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    @Query("SELECT u.username, u.email FROM User u")
+    List<Object[]> findAllIdentifiers();
+    
+    // Authentication: the whole graph UserPrincipal.create reads, in one statement
+    @EntityGraph(User.GRAPH_AUTHENTICATION)
+    @Query("SELECT u FROM User u WHERE u.username = :username")
     Optional<User> findByUsernameWithRolesAndPermissions(@Param("username") String username);
     
-    @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.id = :id")
+    // Mutation: roles are replaced or returned, their permissions are not needed
+    @EntityGraph(User.GRAPH_ROLES)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
     Optional<User> findByIdWithRoles(@Param("id") Long id);
+    
+    @Query("SELECT u.id, u.authzVersion FROM User u")
+    List<Object[]> findAllAuthzVersions();
+    
+    @Query("SELECT DISTINCT u.id AS id, u.username AS username, u.authzVersion AS authzVersion " +
+           "FROM User u JOIN u.roles r WHERE r.id IN :roleIds")
+    List<UserAuthzVersionView> findAuthzVersionsByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.authzVersion = u.authzVersion + 1 " +
+           "WHERE u.id IN (SELECT ur.id FROM User ur JOIN ur.roles r WHERE r.id IN :roleIds)")
+    int incrementAuthzVersionByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+    
+    // Reads the user_roles role_id index alone, without touching the users table
+    @Query(value = "SELECT COUNT(DISTINCT user_id) FROM user_roles WHERE role_id IN (:roleIds)", nativeQuery = true)
+    long countUsersByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+    
+    // One statement inserts the account and its default role; the unique constraints reject duplicates.
+    // Without the declared space Hibernate would drop the whole second-level cache on every registration.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "WITH inserted AS (" +
+                   "INSERT INTO users (username, email, password, enabled, authz_version, created_at, updated_at) " +
+                   "VALUES (:username, :email, :password, true, 0, now(), now()) RETURNING id) " +
+                   "INSERT INTO user_roles (user_id, role_id) SELECT id, :roleId FROM inserted",
+           nativeQuery = true)
+    int insertWithRole(@Param("username") String username, @Param("email") String email,
+                       @Param("password") String password, @Param("roleId") Long roleId);
 }
\ No newline at end of file
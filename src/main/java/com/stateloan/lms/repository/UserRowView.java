@@ -0,0 +1,10 @@
+package com.stateloan.lms.repository;
+
+import java.time.LocalDateTime;
+
+public interface UserRowView extends UserSummaryView {
+    
+    LocalDateTime getCreatedAt();
+    
+    LocalDateTime getUpdatedAt();
+}
\ No newline at end of file
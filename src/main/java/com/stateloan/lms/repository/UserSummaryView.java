@@ -0,0 +1,12 @@
+package com.stateloan.lms.repository;
+
+public interface UserSummaryView {
+    
+    Long getId();
+    
+    String getUsername();
+    
+    String getEmail();
+    
+    Boolean getEnabled();
+}
\ No newline at end of file
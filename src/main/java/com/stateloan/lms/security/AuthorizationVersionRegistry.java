@@ -0,0 +1,101 @@
+package com.stateloan.lms.security;
+
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.RoleHoldersChangedEvent;
+import com.stateloan.lms.event.UserAuthorizationChangedEvent;
+import com.stateloan.lms.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of every user's current authorization version, so a token stamp can be checked
+ * without touching the database. A user missing from the view is treated as stale: the caller falls
+ * back to the database, which also rejects users deleted while this instance was down or
+ * disconnected. Deleted users are kept as {@link #DELETED} until the next reload.
+ */
+@Component
+public class AuthorizationVersionRegistry {
+    
+    /** Version published for a deleted user; no token stamp can reach it. */
+    public static final long DELETED = Long.MAX_VALUE;
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationVersionRegistry.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private volatile Map<Long, Long> authzVersions = new ConcurrentHashMap<>();
+    
+    // Set while a reload is reading, so changes published meanwhile also land in the new view
+    private volatile Map<Long, Long> building;
+    
+    @PostConstruct
+    public synchronized void load() {
+        Map<Long, Long> next = new ConcurrentHashMap<>();
+        building = next;
+        try {
+            for (Object[] row : userRepository.findAllAuthzVersions()) {
+                next.merge((Long) row[0], (Long) row[1], Math::max);
+            }
+            authzVersions = next;
+            logger.info("Loaded authorization versions for {} users", next.size());
+        } finally {
+            building = null;
+        }
+    }
+    
+    public boolean isCurrent(Long userId, Long tokenAuthzVersion) {
+        if (userId == null || tokenAuthzVersion == null) {
+            return false;
+        }
+        Long current = authzVersions.get(userId);
+        return current != null && tokenAuthzVersion >= current;
+    }
+    
+    /**
+     * Records a version read from the database, such as for a user registered after the last reload.
+     * Never lowers a version already known, including a deletion.
+     */
+    public void observe(Long userId, Long authzVersion) {
+        if (userId != null && authzVersion != null) {
+            record(Map.of(userId, authzVersion));
+        }
+    }
+    
+    @EventListener
+    public void onCacheFlush(CacheFlushEvent event) {
+        load();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAuthorizationChanged(UserAuthorizationChangedEvent event) {
+        record(event.authzVersions());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleHoldersChanged(RoleHoldersChangedEvent event) {
+        Map<Long, Long> versions = new HashMap<>();
+        userRepository.findAuthzVersionsByRoleIds(event.roleIds())
+                .forEach(holder -> versions.put(holder.getId(), holder.getAuthzVersion()));
+        record(versions);
+    }
+    
+    // Reads the reload target before the live view, so a change racing with a swap is never lost
+    private void record(Map<Long, Long> versions) {
+        Map<Long, Long> next = building;
+        if (next != null) {
+            versions.forEach((userId, version) -> next.merge(userId, version, Math::max));
+        }
+        Map<Long, Long> live = authzVersions;
+        versions.forEach((userId, version) -> live.merge(userId, version, Math::max));
+    }
+}
\ No newline at end of file
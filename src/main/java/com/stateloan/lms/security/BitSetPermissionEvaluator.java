@@ -0,0 +1,54 @@
+package com.stateloan.lms.security;
+
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+
+/**
+ * Resolves {@code hasPermission('LOAN', 'APPROVE')} (or {@code hasPermission(null, 'LOAN:APPROVE')})
+ * to a single bit test on the principal's permission set.
+ */
+@Component
+public class BitSetPermissionEvaluator implements PermissionEvaluator {
+    
+    private final PermissionIndexRegistry permissionIndexRegistry;
+    
+    public BitSetPermissionEvaluator(PermissionIndexRegistry permissionIndexRegistry) {
+        this.permissionIndexRegistry = permissionIndexRegistry;
+    }
+    
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        if (permission == null) {
+            return false;
+        }
+        
+        Integer bit = targetDomainObject != null
+                ? permissionIndexRegistry.getBit(targetDomainObject.toString(), permission.toString())
+                : permissionIndexRegistry.getBit(permission.toString());
+        
+        return bit != null && hasPermission(authentication, bit);
+    }
+    
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType,
+                                 Object permission) {
+        return hasPermission(authentication, targetType, permission);
+    }
+    
+    boolean hasPermission(Authentication authentication, int bit) {
+        if (authentication == null) {
+            return false;
+        }
+        
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.hasPermission(bit);
+        }
+        
+        GrantedAuthority authority = permissionIndexRegistry.getAuthority(bit);
+        return authority != null && authentication.getAuthorities().contains(authority);
+    }
+}
\ No newline at end of file
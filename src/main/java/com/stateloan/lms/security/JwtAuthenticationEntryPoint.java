@@ -1,41 +1,35 @@
 package com.stateloan.lms.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stateloan.lms.exception.ProblemResponseWriter;
+import com.stateloan.lms.exception.ProblemType;
+import com.stateloan.lms.util.RateLimitedLogger;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 
 @Component
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
     
-    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationEntryPoint.class);
+    // Unauthenticated traffic is attacker-driven, so it must not be able to flood the log
+    private static final RateLimitedLogger logger = new RateLimitedLogger(
+            LoggerFactory.getLogger(JwtAuthenticationEntryPoint.class), 10, Duration.ofSeconds(10));
+    
+    @Autowired
+    private ProblemResponseWriter problemResponseWriter;
     
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                         AuthenticationException authException) throws IOException {
         
-        logger.error("Unauthorized error: {}", authException.getMessage());
-        
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-        body.put("error", "Unauthorized");
-        body.put("message", "Full authentication is required to access this resource");
-        body.put("path", request.getServletPath());
-        body.put("timestamp", System.currentTimeMillis());
+        logger.warn("Unauthorized request to {}: {}", request.getRequestURI(), authException.getMessage());
         
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), body);
+        problemResponseWriter.write(response, ProblemType.UNAUTHORIZED, request.getRequestURI());
     }
 }
\ No newline at end of file
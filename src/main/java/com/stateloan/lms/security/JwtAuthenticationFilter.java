@@ -1,6 +1,8 @@
 package com.stateloan.lms.security;
 
+import com.stateloan.lms.service.TokenRevocationService;
 import com.stateloan.lms.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +10,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,24 +32,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
     
+    @Autowired
+    private AuthorizationVersionRegistry authorizationVersionRegistry;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                    FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
+            Claims claims = jwt != null ? jwtUtils.verifyJwtToken(jwt).orElse(null) : null;
             
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUsernameFromJwtToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (claims != null && !tokenRevocationService.isRevoked(claims.getId())) {
+                UserDetails userDetails = resolvePrincipal(claims);
                 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null,
-                                userDetails.getAuthorities());
-                
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null,
+                                    userDetails.getAuthorities());
+                    
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -55,6 +71,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    private UserDetails resolvePrincipal(Claims claims) {
+        if (statelessPrincipal) {
+            Long userId = claims.get("id", Long.class);
+            Long authzVersion = claims.get("authz_ver", Long.class);
+            
+            if (authorizationVersionRegistry.isCurrent(userId, authzVersion)) {
+                UserPrincipal principal = UserPrincipal.fromClaims(claims, permissionIndexRegistry);
+                if (principal != null) {
+                    return principal;
+                }
+            }
+            logger.debug("Stale authorization version in token for user {}, reloading", claims.getSubject());
+        }
+        
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+    
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         
@@ -1,93 +1,191 @@
 package com.stateloan.lms.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.stateloan.lms.util.RateLimitedLogger;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
     
+    // Invalid tokens are attacker-controlled input; log a sample rather than every one
+    private static final RateLimitedLogger invalidTokenLogger = new RateLimitedLogger(logger, 10, Duration.ofSeconds(10));
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private long verifiedTokenCacheMaxSize;
+    
+    @Value("${jwt.cache.max-ttl:PT10M}")
+    private Duration verifiedTokenCacheMaxTtl;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    private SecretKey signingKey;
+    
+    private JwtParser jwtParser;
+    
+    // Keyed by token digest so raw bearer tokens are never retained in memory
+    private Cache<String, Claims> verifiedTokenCache;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        
+        verifiedTokenCache = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokenCache, "jwt.verified-tokens");
     }
     
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userPrincipal.getUsername())
                 .claim("id", userPrincipal.getId())
                 .claim("email", userPrincipal.getEmail())
-                .claim("authorities", authentication.getAuthorities().stream()
-                        .map(GrantedAuthority::getAuthority)
-                        .collect(Collectors.toList()))
+                .claim("roles", userPrincipal.getRoles())
+                .claim("perms", permissionIndexRegistry.encode(userPrincipal.getPermissionBits()))
+                .claim("pv", permissionIndexRegistry.getVersion())
+                .claim("authz_ver", userPrincipal.getAuthzVersion())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public String getUsernameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
-    
-    public Long getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Parses and verifies the token once, returning its claims. Tokens that were
+     * verified recently are served from the cache without repeating the HMAC check.
+     */
+    public Claims parseJwtClaims(String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new IllegalArgumentException("JWT String cannot be null or empty.");
+        }
+        
+        String digest = tokenDigest(token);
+        Claims claims = verifiedTokenCache.getIfPresent(digest);
         
-        return claims.get("id", Long.class);
+        if (claims == null) {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+            verifiedTokenCache.put(digest, claims);
+        }
+        
+        return claims;
     }
     
-    public boolean validateJwtToken(String authToken) {
+    public Optional<Claims> verifyJwtToken(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(authToken);
-            return true;
+            return Optional.of(parseJwtClaims(token));
         } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
+            invalidTokenLogger.warn("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
+            invalidTokenLogger.warn("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
+            invalidTokenLogger.warn("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
+            invalidTokenLogger.warn("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            invalidTokenLogger.warn("JWT token verification failed: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+    
+    public String getUsernameFromJwtToken(String token) {
+        return parseJwtClaims(token).getSubject();
+    }
+    
+    public Long getUserIdFromJwtToken(String token) {
+        return parseJwtClaims(token).get("id", Long.class);
+    }
+    
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken).isPresent();
     }
     
     public Date getExpirationFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getExpiration();
+        return parseJwtClaims(token).getExpiration();
+    }
+    
+    public CacheStats getVerifiedTokenCacheStats() {
+        return verifiedTokenCache.stats();
+    }
+    
+    public static String tokenDigest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Keeps a verified token no longer than its own expiration, capped at the configured TTL.
+     */
+    private class TokenExpiry implements Expiry<String, Claims> {
+        
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long maxTtlNanos = verifiedTokenCacheMaxTtl.toNanos();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remainingNanos = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
\ No newline at end of file
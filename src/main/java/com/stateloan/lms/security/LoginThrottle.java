@@ -0,0 +1,218 @@
+package com.stateloan.lms.security;
+
+import com.stateloan.lms.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket throttling of login attempts per username and per client IP, checked before any
+ * password verification runs. A successful login gives its username attempt back, so only failures
+ * count against an account and knowing a username is not enough to lock its owner out. Buckets live
+ * in lock-striped, size-capped maps; idle buckets are swept periodically. Checking a known key
+ * allocates nothing.
+ */
+@Component
+public class LoginThrottle {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${security.login-throttle.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${security.login-throttle.stripes:64}")
+    private int stripes;
+    
+    @Value("${security.login-throttle.max-entries-per-stripe:1024}")
+    private int maxEntriesPerStripe;
+    
+    @Value("${security.login-throttle.idle-timeout:PT15M}")
+    private Duration idleTimeout;
+    
+    @Value("${security.login-throttle.username.capacity:5}")
+    private int usernameCapacity;
+    
+    @Value("${security.login-throttle.username.refill-period:PT1M}")
+    private Duration usernameRefillPeriod;
+    
+    @Value("${security.login-throttle.ip.capacity:20}")
+    private int ipCapacity;
+    
+    @Value("${security.login-throttle.ip.refill-period:PT1M}")
+    private Duration ipRefillPeriod;
+    
+    private StripedBuckets usernameBuckets;
+    private StripedBuckets ipBuckets;
+    
+    private Counter usernameRejections;
+    private Counter ipRejections;
+    
+    @PostConstruct
+    public void init() {
+        usernameBuckets = new StripedBuckets(stripes, maxEntriesPerStripe, usernameCapacity, usernameRefillPeriod);
+        ipBuckets = new StripedBuckets(stripes, maxEntriesPerStripe, ipCapacity, ipRefillPeriod);
+        
+        usernameRejections = Counter.builder("security.login.throttled").tag("key", "username").register(meterRegistry);
+        ipRejections = Counter.builder("security.login.throttled").tag("key", "ip").register(meterRegistry);
+        Gauge.builder("security.login.throttle.entries", this, throttle ->
+                throttle.usernameBuckets.size() + throttle.ipBuckets.size()).register(meterRegistry);
+    }
+    
+    /**
+     * Consumes one attempt for the client IP and the username, or throws when either is exhausted.
+     */
+    public void checkLoginAttempt(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        
+        long now = System.nanoTime();
+        
+        long retryAfterNanos = ipBuckets.tryAcquire(clientIp, now);
+        if (retryAfterNanos > 0) {
+            ipRejections.increment();
+            throw rejection(retryAfterNanos);
+        }
+        
+        retryAfterNanos = usernameBuckets.tryAcquire(username, now);
+        if (retryAfterNanos > 0) {
+            usernameRejections.increment();
+            throw rejection(retryAfterNanos);
+        }
+    }
+    
+    /**
+     * Returns the attempt taken from the username's bucket; the IP attempt stays spent.
+     */
+    public void recordSuccessfulLogin(String username) {
+        if (enabled) {
+            usernameBuckets.refund(username);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${security.login-throttle.sweep-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        usernameBuckets.evictIdle(now, idleTimeout.toNanos());
+        ipBuckets.evictIdle(now, idleTimeout.toNanos());
+    }
+    
+    private static TooManyRequestsException rejection(long retryAfterNanos) {
+        long retryAfterSeconds = Math.max(1, Duration.ofNanos(retryAfterNanos).toSeconds() + 1);
+        return new TooManyRequestsException("Too many login attempts, please retry later", retryAfterSeconds);
+    }
+    
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+        
+        Bucket(double tokens, long lastRefillNanos) {
+            this.tokens = tokens;
+            this.lastRefillNanos = lastRefillNanos;
+        }
+    }
+    
+    private static final class StripedBuckets {
+        
+        private final Stripe[] stripes;
+        private final int capacity;
+        private final double tokensPerNano;
+        
+        StripedBuckets(int stripeCount, int maxEntriesPerStripe, int capacity, Duration refillPeriod) {
+            this.stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe(maxEntriesPerStripe);
+            }
+            this.capacity = capacity;
+            this.tokensPerNano = (double) capacity / refillPeriod.toNanos();
+        }
+        
+        // Returns 0 when a token was taken, otherwise the nanoseconds until one is available
+        long tryAcquire(String key, long now) {
+            if (key == null) {
+                return 0;
+            }
+            
+            Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+            synchronized (stripe) {
+                Bucket bucket = stripe.buckets.get(key);
+                if (bucket == null) {
+                    stripe.buckets.put(key, new Bucket(capacity - 1, now));
+                    return 0;
+                }
+                
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.lastRefillNanos) * tokensPerNano);
+                bucket.lastRefillNanos = now;
+                
+                if (bucket.tokens >= 1) {
+                    bucket.tokens -= 1;
+                    return 0;
+                }
+                return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+            }
+        }
+        
+        void refund(String key) {
+            if (key == null) {
+                return;
+            }
+            
+            Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+            synchronized (stripe) {
+                Bucket bucket = stripe.buckets.get(key);
+                if (bucket != null) {
+                    bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+                }
+            }
+        }
+        
+        void evictIdle(long now, long idleNanos) {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+                    while (iterator.hasNext()) {
+                        if (now - iterator.next().lastRefillNanos > idleNanos) {
+                            iterator.remove();
+                        }
+                    }
+                }
+            }
+        }
+        
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.buckets.size();
+                }
+            }
+            return size;
+        }
+    }
+    
+    private static final class Stripe {
+        
+        // Access-ordered so the least recently seen key is dropped once the stripe is full
+        final LinkedHashMap<String, Bucket> buckets;
+        
+        Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.stateloan.lms.security;
+
+import com.stateloan.lms.entity.Permission;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.PermissionCatalogChangedEvent;
+import com.stateloan.lms.repository.PermissionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Interned permission table built from the permission repository. Every permission gets a dense
+ * bit position (its rank by id, so every instance derives the same table) and one shared authority
+ * instance, so principals hold their permissions as a bit set and tokens carry them as a compact
+ * bitmap whose size follows the number of permissions, not the largest id. The index is versioned by
+ * a checksum of the bit/name pairs; a token encoded against a version whose bits still mean the same
+ * permissions keeps decoding after permissions are added.
+ */
+@Component
+public class PermissionIndexRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PermissionIndexRegistry.class);
+    
+    private static final String ROLE_PREFIX = "ROLE_";
+    
+    @Autowired
+    private PermissionRepository permissionRepository;
+    
+    private final Map<String, GrantedAuthority> roleAuthorities = new ConcurrentHashMap<>();
+    
+    private volatile Index index = new Index(0, new GrantedAuthority[0], Map.of(), Map.of(), Map.of(), Set.of(0));
+    
+    @PostConstruct
+    public synchronized void reload() {
+        List<Permission> permissions = permissionRepository.findAll();
+        permissions.sort(Comparator.comparing(Permission::getId));
+        
+        GrantedAuthority[] authorities = new GrantedAuthority[permissions.size()];
+        Map<Long, Integer> bitsById = new HashMap<>();
+        Map<String, Integer> bits = new HashMap<>();
+        Map<String, Map<String, Integer>> bitsByResource = new HashMap<>();
+        CRC32 checksum = new CRC32();
+        
+        for (int bit = 0; bit < permissions.size(); bit++) {
+            Permission permission = permissions.get(bit);
+            authorities[bit] = new SimpleGrantedAuthority(permission.getName());
+            bitsById.put(permission.getId(), bit);
+            bits.put(permission.getName(), bit);
+            bitsByResource.computeIfAbsent(permission.getResource(), resource -> new HashMap<>())
+                    .put(permission.getAction(), bit);
+            checksum.update((bit + ":" + permission.getName() + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        
+        int version = (int) checksum.getValue();
+        Index previous = index;
+        Set<Integer> compatibleVersions = new HashSet<>();
+        compatibleVersions.add(version);
+        if (previous.isSubsetOf(authorities)) {
+            compatibleVersions.addAll(previous.compatibleVersions());
+        }
+        
+        index = new Index(version, authorities, Map.copyOf(bitsById), Map.copyOf(bits), Map.copyOf(bitsByResource),
+                Set.copyOf(compatibleVersions));
+        logger.info("Permission index version {} loaded with {} permissions", version, permissions.size());
+    }
+    
+    // Both reload before the caches that are built from permission bits
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPermissionCatalogChanged(PermissionCatalogChangedEvent event) {
+        reload();
+    }
+    
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCacheFlush(CacheFlushEvent event) {
+        reload();
+    }
+    
+    public int getVersion() {
+        return index.version();
+    }
+    
+    public Integer getBitForId(Long permissionId) {
+        return index.bitsById().get(permissionId);
+    }
+    
+    public Integer getBit(String permissionName) {
+        return index.bits().get(permissionName);
+    }
+    
+    public Integer getBit(String resource, String action) {
+        Map<String, Integer> actions = index.bitsByResource().get(resource);
+        return actions != null ? actions.get(action) : null;
+    }
+    
+    public GrantedAuthority getAuthority(int bit) {
+        GrantedAuthority[] authorities = index.authorities();
+        return bit >= 0 && bit < authorities.length ? authorities[bit] : null;
+    }
+    
+    public GrantedAuthority getRoleAuthority(String roleName) {
+        return roleAuthorities.computeIfAbsent(roleName, name -> new SimpleGrantedAuthority(ROLE_PREFIX + name));
+    }
+    
+    /**
+     * Encodes a permission bit set as a base64url bitmap.
+     */
+    public String encode(BitSet permissionBits) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(permissionBits.toByteArray());
+    }
+    
+    /**
+     * Decodes a bitmap produced by {@link #encode}. Returns null when it was encoded against an
+     * incompatible index version and must not be trusted.
+     */
+    public BitSet decode(String bitmap, int version) {
+        if (!index.compatibleVersions().contains(version)) {
+            return null;
+        }
+        return BitSet.valueOf(Base64.getUrlDecoder().decode(bitmap));
+    }
+    
+    private record Index(int version, GrantedAuthority[] authorities, Map<Long, Integer> bitsById,
+                         Map<String, Integer> bits, Map<String, Map<String, Integer>> bitsByResource, Set<Integer> compatibleVersions) {
+        
+        // True when every bit of this index still names the same permission in the new table
+        boolean isSubsetOf(GrantedAuthority[] newAuthorities) {
+            for (int bit = 0; bit < authorities.length; bit++) {
+                GrantedAuthority authority = authorities[bit];
+                if (authority == null) {
+                    continue;
+                }
+                if (bit >= newAuthorities.length || newAuthorities[bit] == null ||
+                        !newAuthorities[bit].getAuthority().equals(authority.getAuthority())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.stateloan.lms.security;
+
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.PermissionCatalogChangedEvent;
+import com.stateloan.lms.event.RoleGraphChangedEvent;
+import com.stateloan.lms.repository.RoleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transitive closure of the role hierarchy. Whenever the role graph changes, every role's effective
+ * permissions (its own plus those of all its ancestors) are recomputed into a bit set, so building a
+ * principal never walks the hierarchy.
+ */
+@Component
+public class RoleHierarchyRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RoleHierarchyRegistry.class);
+    
+    @Autowired
+    private RoleRepository roleRepository;
+    
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer rebuildTimer;
+    
+    private volatile Closure closure = new Closure(Map.of(), Map.of());
+    
+    @PostConstruct
+    public void init() {
+        rebuildTimer = Timer.builder("security.roles.closure.rebuild").register(meterRegistry);
+        reload();
+    }
+    
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        
+        Map<Long, Set<Long>> parents = new HashMap<>();
+        Map<Long, Set<Long>> children = new HashMap<>();
+        for (Object[] edge : roleRepository.findAllParentEdges()) {
+            Long roleId = (Long) edge[0];
+            Long parentId = (Long) edge[1];
+            parents.computeIfAbsent(roleId, id -> new HashSet<>()).add(parentId);
+            children.computeIfAbsent(parentId, id -> new HashSet<>()).add(roleId);
+        }
+        
+        Map<Long, BitSet> directPermissions = new HashMap<>();
+        for (Object[] grant : roleRepository.findAllPermissionGrants()) {
+            Integer bit = permissionIndexRegistry.getBitForId((Long) grant[1]);
+            if (bit != null) {
+                directPermissions.computeIfAbsent((Long) grant[0], id -> new BitSet()).set(bit);
+            }
+        }
+        
+        Set<Long> roleIds = new HashSet<>(directPermissions.keySet());
+        roleIds.addAll(parents.keySet());
+        roleIds.addAll(children.keySet());
+        
+        Map<Long, BitSet> effectivePermissions = new HashMap<>();
+        for (Long roleId : roleIds) {
+            resolve(roleId, parents, directPermissions, effectivePermissions, new HashSet<>());
+        }
+        
+        Map<Long, Set<Long>> frozenChildren = new HashMap<>();
+        children.forEach((parentId, childIds) -> frozenChildren.put(parentId, Set.copyOf(childIds)));
+        
+        closure = new Closure(effectivePermissions, frozenChildren);
+        
+        long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Role closure rebuilt for {} roles in {} ms", roleIds.size(), elapsed / 1_000_000);
+    }
+    
+    // Memoized depth-first walk; a cycle that slipped into the table is logged and cut
+    private BitSet resolve(Long roleId, Map<Long, Set<Long>> parents, Map<Long, BitSet> directPermissions,
+                           Map<Long, BitSet> resolved, Set<Long> visiting) {
+        BitSet effective = resolved.get(roleId);
+        if (effective != null) {
+            return effective;
+        }
+        if (!visiting.add(roleId)) {
+            logger.warn("Cycle in role hierarchy through role {}", roleId);
+            return directPermissions.getOrDefault(roleId, new BitSet());
+        }
+        
+        effective = new BitSet();
+        BitSet direct = directPermissions.get(roleId);
+        if (direct != null) {
+            effective.or(direct);
+        }
+        for (Long parentId : parents.getOrDefault(roleId, Set.of())) {
+            effective.or(resolve(parentId, parents, directPermissions, resolved, visiting));
+        }
+        
+        visiting.remove(roleId);
+        resolved.put(roleId, effective);
+        return effective;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleGraphChanged(RoleGraphChangedEvent event) {
+        reload();
+    }
+    
+    // Bits may have moved, so this follows the permission index reload
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onPermissionCatalogChanged(PermissionCatalogChangedEvent event) {
+        reload();
+    }
+    
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onCacheFlush(CacheFlushEvent event) {
+        reload();
+    }
+    
+    /**
+     * Effective permission bits of a role, or null when the role is not in the closure yet. The
+     * returned set is shared and must not be modified.
+     */
+    public BitSet getEffectivePermissions(Long roleId) {
+        return closure.effectivePermissions().get(roleId);
+    }
+    
+    /**
+     * The role and every role that inherits from it, directly or transitively.
+     */
+    public Set<Long> getDescendants(Long roleId) {
+        Map<Long, Set<Long>> children = closure.children();
+        Set<Long> descendants = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(roleId);
+        
+        while (!pending.isEmpty()) {
+            Long current = pending.pop();
+            if (descendants.add(current)) {
+                children.getOrDefault(current, Set.of()).forEach(pending::push);
+            }
+        }
+        return descendants;
+    }
+    
+    /**
+     * Roles whose effective permissions include any of the given bits, inherited grants included.
+     */
+    public Set<Long> getRolesGranting(BitSet permissionBits) {
+        Set<Long> roleIds = new HashSet<>();
+        closure.effectivePermissions().forEach((roleId, effective) -> {
+            if (effective.intersects(permissionBits)) {
+                roleIds.add(roleId);
+            }
+        });
+        return roleIds;
+    }
+    
+    private record Closure(Map<Long, BitSet> effectivePermissions, Map<Long, Set<Long>> children) {
+    }
+}
\ No newline at end of file
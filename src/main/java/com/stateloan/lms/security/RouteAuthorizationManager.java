@@ -0,0 +1,124 @@
+package com.stateloan.lms.security;
+
+import com.stateloan.lms.entity.RoutePermission;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.PermissionCatalogChangedEvent;
+import com.stateloan.lms.event.RoutePermissionsChangedEvent;
+import com.stateloan.lms.repository.RoutePermissionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Authorizes every request not explicitly opened in {@link SecurityConfig} against the route rules
+ * stored in {@code route_permissions}. The rules are compiled into a {@link RouteTrie} at startup
+ * and whenever a rule or permission changes; a request then costs one trie walk and one bit test.
+ * Paths are matched relative to the servlet context path. Authenticated requests that no rule
+ * covers are allowed, unless they fall below the literal prefix of some rule: those fail closed.
+ */
+@Component
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RouteAuthorizationManager.class);
+    
+    // Guards a database that has not been seeded yet: until a rule exists everything needs it
+    private static final String BOOTSTRAP_PERMISSION = "SYSTEM:ADMIN";
+    
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    
+    @Autowired
+    private RoutePermissionRepository routePermissionRepository;
+    
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    @Autowired
+    private BitSetPermissionEvaluator permissionEvaluator;
+    
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+    
+    private volatile RouteTrie routes = RouteTrie.builder().build();
+    
+    @PostConstruct
+    public synchronized void reload() {
+        List<RoutePermission> rules = routePermissionRepository.findAllWithPermission();
+        RouteTrie.Builder builder = RouteTrie.builder();
+        
+        for (RoutePermission rule : rules) {
+            Integer bit = permissionIndexRegistry.getBitForId(rule.getPermission().getId());
+            try {
+                builder.add(rule.getHttpMethod(), rule.getPathPattern(),
+                        bit != null ? bit : RouteTrie.UNKNOWN_PERMISSION, rule.getPriority());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping route rule {}: {}", rule.getId(), e.getMessage());
+            }
+        }
+        
+        if (rules.isEmpty()) {
+            Integer bit = permissionIndexRegistry.getBit(BOOTSTRAP_PERMISSION);
+            builder.add(null, "/**", bit != null ? bit : RouteTrie.UNKNOWN_PERMISSION, Integer.MIN_VALUE);
+            logger.warn("No route rules stored; requiring {} on every protected route", BOOTSTRAP_PERMISSION);
+        }
+        
+        routes = builder.build();
+        logger.info("Compiled {} route rules", routes.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoutePermissionsChanged(RoutePermissionsChangedEvent event) {
+        reload();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onPermissionCatalogChanged(PermissionCatalogChangedEvent event) {
+        reload();
+    }
+    
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onCacheFlush(CacheFlushEvent event) {
+        reload();
+    }
+    
+    /**
+     * Throws {@link IllegalArgumentException} when the pattern cannot be compiled into the route trie.
+     */
+    public static void validatePattern(String pattern) {
+        RouteTrie.validatePattern(pattern);
+    }
+    
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated() || trustResolver.isAnonymous(current)) {
+            return DENIED;
+        }
+        
+        HttpServletRequest request = context.getRequest();
+        int bit = routes.resolve(request.getMethod(), UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        
+        if (bit == RouteTrie.NO_RULE) {
+            return GRANTED;
+        }
+        return bit >= 0 && permissionEvaluator.hasPermission(current, bit) ? GRANTED : DENIED;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,228 @@
+package com.stateloan.lms.security;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable path-segment trie of route rules. Literal segments are matched by hash lookup,
+ * {@code *} and {@code {var}} match exactly one segment and {@code **} matches any number of
+ * segments. Resolving a request walks the trie once and returns the permission bit of the winning
+ * rule: highest priority first, then the most specific pattern, then a method-specific rule over
+ * an any-method one. The literal prefix of each pattern, such as {@code /api/users} for
+ * {@code /api/users/**}, is guarded: a request below it that no rule matches is denied.
+ */
+final class RouteTrie {
+    
+    /** Returned by {@link #resolve} when no rule covers the request. */
+    static final int NO_RULE = -2;
+    
+    /**
+     * Bit of a rule whose permission does not exist, and of an unmatched request below a guarded
+     * prefix; either denies everyone.
+     */
+    static final int UNKNOWN_PERMISSION = -1;
+    
+    private static final int LITERAL_WEIGHT = 3;
+    private static final int VARIABLE_WEIGHT = 2;
+    private static final int CATCH_ALL_WEIGHT = 1;
+    
+    private final Node root;
+    private final int size;
+    
+    private RouteTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the permission bit required for the request, {@link #UNKNOWN_PERMISSION} when it must
+     * be denied, or {@link #NO_RULE} when the path is outside every guarded prefix.
+     */
+    int resolve(String method, String path) {
+        String[] segments = StringUtils.tokenizeToStringArray(path, "/");
+        Rule rule = match(root, segments, 0, method, null);
+        if (rule != null) {
+            return rule.bit();
+        }
+        return isGuarded(segments) ? UNKNOWN_PERMISSION : NO_RULE;
+    }
+    
+    private boolean isGuarded(String[] segments) {
+        Node node = root;
+        for (String segment : segments) {
+            node = node.literals.get(segment);
+            if (node == null) {
+                return false;
+            }
+            if (node.guarded) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Rule match(Node node, String[] segments, int index, String method, Rule best) {
+        if (index == segments.length) {
+            best = better(best, node.select(method));
+        } else {
+            Node literal = node.literals.get(segments[index]);
+            if (literal != null) {
+                best = match(literal, segments, index + 1, method, best);
+            }
+            if (node.variable != null) {
+                best = match(node.variable, segments, index + 1, method, best);
+            }
+        }
+        
+        if (node.catchAll != null) {
+            for (int next = index; next <= segments.length; next++) {
+                best = match(node.catchAll, segments, next, method, best);
+            }
+        }
+        
+        return best;
+    }
+    
+    private static Rule better(Rule current, Rule candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.compareTo(current) > 0 ? candidate : current;
+    }
+    
+    /**
+     * Throws {@link IllegalArgumentException} unless the pattern is absolute and every segment is a
+     * literal, {@code *}, {@code **} or a whole-segment {@code {var}}.
+     */
+    static void validatePattern(String pattern) {
+        if (pattern == null || !pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route pattern must start with '/': " + pattern);
+        }
+        
+        for (String segment : StringUtils.tokenizeToStringArray(pattern, "/")) {
+            if (segment.equals("*") || segment.equals("**") || isVariable(segment)) {
+                continue;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) {
+                throw new IllegalArgumentException("Unsupported route pattern segment '" + segment + "' in " + pattern);
+            }
+        }
+    }
+    
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+    
+    static Builder builder() {
+        return new Builder();
+    }
+    
+    static final class Builder {
+        
+        private final Node root = new Node();
+        private int size;
+        
+        private Builder() {}
+        
+        Builder add(String method, String pattern, int bit, int priority) {
+            validatePattern(pattern);
+            
+            Node node = root;
+            Node literalPrefix = root;
+            boolean inPrefix = true;
+            int specificity = 0;
+            for (String segment : StringUtils.tokenizeToStringArray(pattern, "/")) {
+                if (segment.equals("**")) {
+                    node = node.catchAll != null ? node.catchAll : (node.catchAll = new Node());
+                    specificity += CATCH_ALL_WEIGHT;
+                    inPrefix = false;
+                } else if (segment.equals("*") || isVariable(segment)) {
+                    node = node.variable != null ? node.variable : (node.variable = new Node());
+                    specificity += VARIABLE_WEIGHT;
+                    inPrefix = false;
+                } else {
+                    node = node.literals.computeIfAbsent(segment, key -> new Node());
+                    specificity += LITERAL_WEIGHT;
+                    if (inPrefix) {
+                        literalPrefix = node;
+                    }
+                }
+            }
+            if (literalPrefix != root) {
+                literalPrefix.guarded = true;
+            }
+            
+            String normalizedMethod = StringUtils.hasText(method) ? method.trim().toUpperCase() : null;
+            node.pending.add(new Rule(normalizedMethod, bit, priority, specificity));
+            size++;
+            return this;
+        }
+        
+        RouteTrie build() {
+            root.freeze();
+            return new RouteTrie(root, size);
+        }
+    }
+    
+    private static final class Node {
+        
+        private static final Rule[] NO_RULES = new Rule[0];
+        
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node variable;
+        private Node catchAll;
+        // Last literal segment of some rule's pattern prefix
+        private boolean guarded;
+        private List<Rule> pending = new ArrayList<>();
+        // Sorted best first once the trie is built
+        private Rule[] rules = NO_RULES;
+        
+        private void freeze() {
+            if (!pending.isEmpty()) {
+                rules = pending.toArray(NO_RULES);
+                Arrays.sort(rules, (left, right) -> right.compareTo(left));
+            }
+            pending = null;
+            
+            literals.values().forEach(Node::freeze);
+            if (variable != null) {
+                variable.freeze();
+            }
+            if (catchAll != null) {
+                catchAll.freeze();
+            }
+        }
+        
+        private Rule select(String method) {
+            for (Rule rule : rules) {
+                if (rule.method() == null || rule.method().equals(method)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+    }
+    
+    private record Rule(String method, int bit, int priority, int specificity) implements Comparable<Rule> {
+        
+        @Override
+        public int compareTo(Rule other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            if (specificity != other.specificity) {
+                return Integer.compare(specificity, other.specificity);
+            }
+            return Boolean.compare(method != null, other.method != null);
+        }
+    }
+}
\ No newline at end of file
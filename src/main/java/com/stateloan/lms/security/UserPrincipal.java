@@ -1,97 +1,196 @@
 package com.stateloan.lms.security;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.stateloan.lms.entity.User;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collections;
+import java.util.List;
 
 public class UserPrincipal implements UserDetails {
-    
-    private Long id;
-    private String username;
-    private String email;
-    private String password;
-    private Boolean enabled;
-    private Collection<? extends GrantedAuthority> authorities;
-    
-    public UserPrincipal(Long id, String username, String email, String password, 
-                        Boolean enabled, Collection<? extends GrantedAuthority> authorities) {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Boolean enabled;
+    private final List<String> roles;
+    // Permission index bits held through any role; never mutated after construction
+    private final BitSet permissionBits;
+    private final Collection<GrantedAuthority> authorities;
+    private final Long authzVersion;
+
+    public UserPrincipal(Long id, String username, String email, String password,
+                        Boolean enabled, List<String> roles, BitSet permissionBits,
+                        PermissionIndexRegistry permissionIndex, Long authzVersion) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.enabled = enabled;
-        this.authorities = authorities;
+        this.roles = List.copyOf(roles);
+        this.permissionBits = permissionBits;
+        this.authorities = buildAuthorities(this.roles, permissionBits, permissionIndex);
+        this.authzVersion = authzVersion;
     }
-    
-    public static UserPrincipal create(User user) {
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        
+
+    /**
+     * Takes each role's effective permissions from the precomputed hierarchy closure, falling back to
+     * the role's own permissions for a role the closure has not picked up yet.
+     */
+    public static UserPrincipal create(User user, PermissionIndexRegistry permissionIndex,
+                                       RoleHierarchyRegistry roleHierarchy) {
+        List<String> roles = new ArrayList<>();
+        BitSet permissionBits = new BitSet();
+
         user.getRoles().forEach(role -> {
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
-            
-            role.getPermissions().forEach(permission -> {
-                authorities.add(new SimpleGrantedAuthority(permission.getName()));
-            });
+            roles.add(role.getName());
+
+            BitSet effectivePermissions = roleHierarchy.getEffectivePermissions(role.getId());
+            if (effectivePermissions != null) {
+                permissionBits.or(effectivePermissions);
+            } else {
+                role.getPermissions().forEach(permission -> {
+                    Integer bit = permissionIndex.getBitForId(permission.getId());
+                    if (bit != null) {
+                        permissionBits.set(bit);
+                    }
+                });
+            }
         });
-        
+
         return new UserPrincipal(
             user.getId(),
             user.getUsername(),
             user.getEmail(),
             user.getPassword(),
             user.getEnabled(),
-            authorities
+            roles,
+            permissionBits,
+            permissionIndex,
+            user.getAuthzVersion()
         );
     }
-    
+
+    /**
+     * Builds a principal from already verified token claims, without a database lookup.
+     * Returns null when the token carries no permission bitmap, or one encoded against an
+     * incompatible permission index, and must be reloaded.
+     */
+    public static UserPrincipal fromClaims(Claims claims, PermissionIndexRegistry permissionIndex) {
+        List<?> roleNames = claims.get("roles", List.class);
+        String permissionBitmap = claims.get("perms", String.class);
+        Integer indexVersion = claims.get("pv", Integer.class);
+        if (roleNames == null || permissionBitmap == null || indexVersion == null) {
+            return null;
+        }
+
+        BitSet permissionBits = permissionIndex.decode(permissionBitmap, indexVersion);
+        if (permissionBits == null) {
+            return null;
+        }
+        List<String> roles = new ArrayList<>();
+        roleNames.forEach(name -> roles.add(name.toString()));
+
+        return new UserPrincipal(
+            claims.get("id", Long.class),
+            claims.getSubject(),
+            claims.get("email", String.class),
+            null,
+            true,
+            roles,
+            permissionBits,
+            permissionIndex,
+            claims.get("authz_ver", Long.class)
+        );
+    }
+
+    // Only shared role and permission authority instances are referenced, never new ones
+    private static Collection<GrantedAuthority> buildAuthorities(List<String> roles, BitSet permissionBits,
+                                                                 PermissionIndexRegistry permissionIndex) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size() + permissionBits.cardinality());
+
+        roles.forEach(role -> authorities.add(permissionIndex.getRoleAuthority(role)));
+
+        for (int bit = permissionBits.nextSetBit(0); bit >= 0; bit = permissionBits.nextSetBit(bit + 1)) {
+            GrantedAuthority authority = permissionIndex.getAuthority(bit);
+            if (authority != null) {
+                authorities.add(authority);
+            }
+        }
+
+        return Collections.unmodifiableList(authorities);
+    }
+
     public Long getId() {
         return id;
     }
-    
+
     public String getEmail() {
         return email;
     }
-    
+
+    public Long getAuthzVersion() {
+        return authzVersion;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    public boolean hasPermission(int bit) {
+        return permissionBits.get(bit);
+    }
+
+    public BitSet getPermissionBits() {
+        return (BitSet) permissionBits.clone();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
     }
-    
+
+    @JsonIgnore
     @Override
     public String getPassword() {
         return password;
     }
-    
+
     @Override
     public String getUsername() {
         return username;
     }
-    
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
     }
-    
+
     @Override
     public boolean isAccountNonLocked() {
         return true;
     }
-    
+
     @Override
     public boolean isCredentialsNonExpired() {
         return true;
     }
-    
+
     @Override
     public boolean isEnabled() {
         return enabled;
     }
-    
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -99,7 +198,7 @@ public class UserPrincipal implements UserDetails {
         UserPrincipal that = (UserPrincipal) o;
         return id.equals(that.id);
     }
-    
+
     @Override
     public int hashCode() {
         return id.hashCode();
@@ -1,10 +1,14 @@
 package com.stateloan.lms.service;
 
+import com.stateloan.lms.dto.JwtResponse;
+import com.stateloan.lms.exception.TooManyRequestsException;
 import com.stateloan.lms.security.JwtUtils;
+import com.stateloan.lms.security.UserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,31 +25,54 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
     
-    public String authenticate(String username, String password) {
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    /**
+     * Verifies the credentials and builds the login response from the authenticated principal,
+     * so a login costs the single user lookup done by the authentication provider. The security
+     * context is left untouched; the client authenticates later requests with the returned token.
+     */
+    public JwtResponse authenticate(String username, String password) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(username, password)
             );
             
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
             String jwt = jwtUtils.generateJwtToken(authentication);
             
             logger.info("User {} authenticated successfully", username);
-            return jwt;
+            return new JwtResponse(jwt, principal.getId(), principal.getUsername(), principal.getEmail(),
+                    principal.getRoles());
             
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (InternalAuthenticationServiceException e) {
+            if (e.getCause() instanceof TooManyRequestsException tooManyRequests) {
+                throw tooManyRequests;
+            }
+            logger.error("Authentication failed for user {}: {}", username, e.getMessage());
+            throw new RuntimeException("Invalid username or password");
         } catch (Exception e) {
             logger.error("Authentication failed for user {}: {}", username, e.getMessage());
             throw new RuntimeException("Invalid username or password");
         }
     }
     
-    public void logout() {
+    public void logout(String token) {
         SecurityContextHolder.clearContext();
+        
+        if (token != null) {
+            jwtUtils.verifyJwtToken(token).ifPresent(claims -> tokenRevocationService.revoke(
+                    claims.getId(), claims.getExpiration().toInstant()));
+        }
     }
     
     public boolean validateToken(String token) {
-        return jwtUtils.validateJwtToken(token);
+        return jwtUtils.verifyJwtToken(token)
+                .filter(claims -> !tokenRevocationService.isRevoked(claims.getId()))
+                .isPresent();
     }
     
     public String getUsernameFromToken(String token) {
@@ -0,0 +1,72 @@
+package com.stateloan.lms.service;
+
+import com.stateloan.lms.dto.AuthorizationCheckRequest;
+import com.stateloan.lms.dto.AuthorizationCheckResponse;
+import com.stateloan.lms.security.PermissionIndexRegistry;
+import com.stateloan.lms.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers batched permission checks for other services. Each distinct subject is resolved once per
+ * batch through the principal cache, which holds the user's effective permissions as a bit set, so
+ * a batch costs at most one query per uncached subject and one bit test per check.
+ */
+@Service
+public class AuthorizationCheckService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationCheckService.class);
+    
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    @Value("${security.authz-check.max-batch-size:1000}")
+    private int maxBatchSize;
+    
+    public AuthorizationCheckResponse check(AuthorizationCheckRequest request) {
+        List<AuthorizationCheckRequest.Check> checks = request.checks();
+        if (checks.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " checks are allowed per request");
+        }
+        
+        Map<String, Optional<UserPrincipal>> subjects = new HashMap<>();
+        List<AuthorizationCheckResponse.Decision> decisions = new ArrayList<>(checks.size());
+        
+        for (AuthorizationCheckRequest.Check check : checks) {
+            Optional<UserPrincipal> subject = subjects.computeIfAbsent(check.subject(), this::loadSubject);
+            Integer bit = permissionIndexRegistry.getBit(check.permission());
+            
+            boolean allowed = bit != null && subject
+                    .filter(UserPrincipal::isEnabled)
+                    .map(principal -> principal.hasPermission(bit))
+                    .orElse(false);
+            
+            decisions.add(new AuthorizationCheckResponse.Decision(
+                    check.subject(), check.permission(), check.target(), allowed));
+        }
+        
+        logger.debug("Answered {} authorization checks for {} subjects", checks.size(), subjects.size());
+        return new AuthorizationCheckResponse(decisions);
+    }
+    
+    private Optional<UserPrincipal> loadSubject(String username) {
+        try {
+            return Optional.of((UserPrincipal) userDetailsService.loadUserByUsername(username));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+}
\ No newline at end of file
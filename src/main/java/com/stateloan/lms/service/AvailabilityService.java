@@ -0,0 +1,139 @@
+package com.stateloan.lms.service;
+
+import com.stateloan.lms.dto.AvailabilityResponse;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.UserIdentifiersAddedEvent;
+import com.stateloan.lms.repository.UserRepository;
+import com.stateloan.lms.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Answers username and email availability probes from Bloom filters of every taken identifier,
+ * so the common case (a fresh identifier) never reaches the database. Only a probable hit is
+ * confirmed with an exists query. Identifiers are normalized to trimmed lower case in the filters,
+ * which can only add false positives. The filters are rebuilt periodically, dropping identifiers
+ * of deleted or renamed accounts, and whenever the caches are flushed.
+ */
+@Service
+public class AvailabilityService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${security.availability.expected-insertions:1000000}")
+    private long expectedInsertions;
+    
+    @Value("${security.availability.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+    
+    private volatile Filters filters;
+    
+    // Set while a rebuild is loading, so identifiers taken meanwhile also land in the new filters
+    private volatile Filters building;
+    
+    private Counter filterMissCounter;
+    private Counter databaseCheckCounter;
+    
+    @PostConstruct
+    public void init() {
+        filterMissCounter = Counter.builder("security.availability.probes").tag("answered", "filter")
+                .register(meterRegistry);
+        databaseCheckCounter = Counter.builder("security.availability.probes").tag("answered", "database")
+                .register(meterRegistry);
+        rebuild();
+    }
+    
+    public AvailabilityResponse check(String username, String email) {
+        Boolean usernameAvailable = StringUtils.hasText(username)
+                ? isAvailable(filters.usernames(), username, userRepository::existsByUsername)
+                : null;
+        Boolean emailAvailable = StringUtils.hasText(email)
+                ? isAvailable(filters.emails(), email, userRepository::existsByEmail)
+                : null;
+        return new AvailabilityResponse(usernameAvailable, emailAvailable);
+    }
+    
+    private boolean isAvailable(BloomFilter filter, String value, Function<String, Boolean> exists) {
+        if (!filter.mightContain(normalize(value))) {
+            filterMissCounter.increment();
+            return true;
+        }
+        databaseCheckCounter.increment();
+        return !exists.apply(value.trim());
+    }
+    
+    // Reads the rebuild target before the live filters, so an add racing with a swap is never lost
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserIdentifiersAdded(UserIdentifiersAddedEvent event) {
+        Filters next = building;
+        if (next != null) {
+            record(next, event);
+        }
+        record(filters, event);
+    }
+    
+    private static void record(Filters target, UserIdentifiersAddedEvent event) {
+        if (event.usernames() != null) {
+            event.usernames().forEach(username -> target.usernames().add(normalize(username)));
+        }
+        if (event.emails() != null) {
+            event.emails().forEach(email -> target.emails().add(normalize(email)));
+        }
+    }
+    
+    @EventListener
+    public void onCacheFlush(CacheFlushEvent event) {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${security.availability.rebuild-interval:PT6H}",
+               initialDelayString = "${security.availability.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        long userCount = userRepository.count();
+        long capacity = Math.max(expectedInsertions, userCount * 2);
+        
+        Filters next = new Filters(new BloomFilter(capacity, falsePositiveProbability),
+                new BloomFilter(capacity, falsePositiveProbability));
+        building = next;
+        try {
+            List<Object[]> identifiers = userRepository.findAllIdentifiers();
+            for (Object[] identifier : identifiers) {
+                next.usernames().add(normalize((String) identifier[0]));
+                next.emails().add(normalize((String) identifier[1]));
+            }
+            filters = next;
+            logger.info("Availability filters rebuilt for {} users ({} bits each) in {} ms", identifiers.size(),
+                    next.usernames().getBitCount(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            building = null;
+        }
+    }
+    
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+    }
+}
\ No newline at end of file
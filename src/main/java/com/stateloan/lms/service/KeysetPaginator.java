@@ -0,0 +1,147 @@
+package com.stateloan.lms.service;
+
+import com.stateloan.lms.dto.CursorPage;
+import com.stateloan.lms.dto.CursorRequest;
+import com.stateloan.lms.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over {@code id}, {@code (createdAt, id)} or {@code (username, id)}. Each page is
+ * one query that seeks past the cursor and reads one row more than requested to learn whether another
+ * page follows, so the cost of a page does not grow with its depth. Only the requested properties are
+ * selected, as tuples aliased by property name, and no entity is loaded. The total is only counted
+ * when asked for.
+ */
+@Component
+public class KeysetPaginator {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+    
+    /**
+     * Reads one page of {@code properties} of the entity. The mapper receives the whole page at
+     * once, so anything it needs per row can be loaded with one more query.
+     */
+    public <T, R> CursorPage<R> page(Class<T> entityType, Specification<T> filter, CursorRequest request,
+                                     List<String> properties, Function<List<Tuple>, List<R>> mapper) {
+        if (request.size() < 1 || request.size() > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        
+        KeysetCursor.SortKey sortKey = KeysetCursor.SortKey.parse(request.sort());
+        boolean ascending = KeysetCursor.parseAscending(request.direction());
+        
+        KeysetCursor cursor = null;
+        if (request.cursor() != null && !request.cursor().isBlank()) {
+            cursor = KeysetCursor.decode(request.cursor());
+            if (cursor.sortKey() != sortKey || cursor.ascending() != ascending) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort");
+            }
+        }
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityType);
+        if (root.getModel().getAttributes().stream()
+                .noneMatch(attribute -> attribute.getName().equals(sortKey.getProperty()))) {
+            throw new IllegalArgumentException("Unsupported sort '" + request.sort() + "' for this listing");
+        }
+        
+        Set<String> selected = new LinkedHashSet<>(properties);
+        selected.add("id");
+        selected.add(sortKey.getProperty());
+        List<Selection<?>> selections = new ArrayList<>();
+        selected.forEach(property -> selections.add(root.get(property).alias(property)));
+        query.multiselect(selections);
+        
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filterPredicate = filter.toPredicate(root, query, cb);
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+        if (cursor != null) {
+            predicates.add(after(cursor, root, cb));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(order(sortKey, ascending, root, cb));
+        
+        int size = request.size();
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Tuple last = rows.get(size - 1);
+            Comparable<?> lastKey = sortKey == KeysetCursor.SortKey.ID
+                    ? null
+                    : (Comparable<?>) last.get(sortKey.getProperty());
+            nextCursor = new KeysetCursor(sortKey, ascending, lastKey, last.get("id", Long.class)).encode();
+        }
+        
+        Long total = request.includeTotal() ? count(entityType, filter) : null;
+        return new CursorPage<>(List.copyOf(mapper.apply(rows)), nextCursor, total);
+    }
+    
+    private <T> long count(Class<T> entityType, Specification<T> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        query.select(cb.count(root));
+        
+        Predicate filterPredicate = filter.toPredicate(root, query, cb);
+        if (filterPredicate != null) {
+            query.where(filterPredicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+    
+    private static List<Order> order(KeysetCursor.SortKey sortKey, boolean ascending, Root<?> root,
+                                     CriteriaBuilder cb) {
+        Function<Path<?>, Order> direction = path -> ascending ? cb.asc(path) : cb.desc(path);
+        return sortKey == KeysetCursor.SortKey.ID
+                ? List.of(direction.apply(root.get("id")))
+                : List.of(direction.apply(root.get(sortKey.getProperty())), direction.apply(root.get("id")));
+    }
+    
+    /**
+     * (key, id) strictly beyond the cursor in the sort direction. The OR form alone is not an index
+     * range condition, so the redundant bound on the key lets PostgreSQL seek the (key, id) index
+     * to the cursor instead of scanning from the start.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(KeysetCursor cursor, Root<?> root, CriteriaBuilder cb) {
+        Path<Long> id = root.get("id");
+        if (cursor.sortKey() == KeysetCursor.SortKey.ID) {
+            return cursor.ascending() ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+        }
+        
+        Path<Comparable> key = root.get(cursor.sortKey().getProperty());
+        Comparable lastKey = cursor.key();
+        return cursor.ascending()
+                ? cb.and(cb.greaterThanOrEqualTo(key, lastKey),
+                        cb.or(cb.greaterThan(key, lastKey), cb.greaterThan(id, cursor.id())))
+                : cb.and(cb.lessThanOrEqualTo(key, lastKey),
+                        cb.or(cb.lessThan(key, lastKey), cb.lessThan(id, cursor.id())));
+    }
+}
\ No newline at end of file
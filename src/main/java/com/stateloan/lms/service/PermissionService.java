@@ -1,14 +1,36 @@
 package com.stateloan.lms.service;
 
+import com.stateloan.lms.dto.CursorPage;
+import com.stateloan.lms.dto.CursorRequest;
+import com.stateloan.lms.dto.PermissionHoldersResponse;
+import com.stateloan.lms.dto.PermissionResponse;
 import com.stateloan.lms.entity.Permission;
+import com.stateloan.lms.entity.Role;
+import com.stateloan.lms.entity.User;
+import com.stateloan.lms.event.PermissionCatalogChangedEvent;
+import com.stateloan.lms.exception.ConflictException;
+import com.stateloan.lms.repository.ListingSpecifications;
 import com.stateloan.lms.repository.PermissionRepository;
+import com.stateloan.lms.repository.RoutePermissionRepository;
+import com.stateloan.lms.repository.UserRepository;
+import com.stateloan.lms.security.PermissionIndexRegistry;
+import com.stateloan.lms.security.RoleHierarchyRegistry;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -18,13 +40,68 @@ public class PermissionService {
     
     private static final Logger logger = LoggerFactory.getLogger(PermissionService.class);
     
+    private static final List<String> PERMISSION_COLUMNS =
+            List.of("id", "name", "description", "createdAt", "updatedAt");
+    
+    private static final List<String> HOLDER_COLUMNS = List.of("id", "username", "email", "enabled");
+    
     @Autowired
     private PermissionRepository permissionRepository;
     
+    @Autowired
+    private RoutePermissionRepository routePermissionRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    @Autowired
+    private RoleHierarchyRegistry roleHierarchyRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    
     public List<Permission> findAll() {
         return permissionRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public Optional<PermissionResponse> findResponseById(Long id) {
+        return permissionRepository.findViewById(id).map(PermissionResponse::from);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<PermissionResponse> findResponsesByResource(String resource) {
+        return permissionRepository.findViewsByResource(resource + ":").stream()
+                .map(PermissionResponse::from)
+                .toList();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<PermissionResponse> findResponsesByAction(String action) {
+        return permissionRepository.findViewsByAction(":" + action).stream()
+                .map(PermissionResponse::from)
+                .toList();
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<PermissionResponse> findPage(String resource, String action, CursorRequest request) {
+        Specification<Permission> filter = Specification.allOf(
+                ListingSpecifications.startsWith("name", resource != null ? resource + ":" : null),
+                ListingSpecifications.endsWith("name", action != null ? ":" + action : null));
+        return keysetPaginator.page(Permission.class, filter, request, PERMISSION_COLUMNS, rows -> rows.stream()
+                .map(row -> PermissionResponse.of(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("description", String.class), row.get("createdAt", LocalDateTime.class),
+                        row.get("updatedAt", LocalDateTime.class)))
+                .toList());
+    }
+    
     public Optional<Permission> findById(Long id) {
         return permissionRepository.findById(id);
     }
@@ -45,6 +122,59 @@ public class PermissionService {
         return permissionRepository.findByNameIn(names);
     }
     
+    /**
+     * Users holding the named permission, or any permission of the resource when no name is given.
+     * The granting roles come from the in-memory hierarchy closure, so inherited grants count. Users
+     * are read as a keyset page by {@code (username, id)}, so a page costs the same at any depth, and
+     * the optional total is counted from {@code user_roles} alone.
+     */
+    @Transactional(readOnly = true)
+    public PermissionHoldersResponse findHolders(String permissionName, String resource, String cursor, int size,
+                                                 boolean includeTotal) {
+        if (StringUtils.hasText(permissionName) == StringUtils.hasText(resource)) {
+            throw new RuntimeException("Specify either a permission or a resource");
+        }
+        
+        List<Permission> permissions = StringUtils.hasText(permissionName)
+                ? permissionRepository.findByName(permissionName).map(List::of).orElse(List.of())
+                : findByResource(resource);
+        if (permissions.isEmpty()) {
+            throw new RuntimeException("No permission found for " + (StringUtils.hasText(permissionName) ? permissionName : resource));
+        }
+        
+        BitSet permissionBits = new BitSet();
+        permissions.stream()
+                .map(permission -> permissionIndexRegistry.getBitForId(permission.getId()))
+                .filter(Objects::nonNull)
+                .forEach(permissionBits::set);
+        List<Long> roleIds = roleHierarchyRegistry.getRolesGranting(permissionBits).stream().sorted().toList();
+        List<String> permissionNames = permissions.stream().map(Permission::getName).sorted().toList();
+        
+        if (roleIds.isEmpty()) {
+            return new PermissionHoldersResponse(permissionNames, roleIds, List.of(), null, includeTotal ? 0L : null);
+        }
+        
+        CursorPage<PermissionHoldersResponse.Holder> users = keysetPaginator.page(User.class, holdsAnyRole(roleIds),
+                new CursorRequest(cursor, size, "username", "asc", false), HOLDER_COLUMNS, rows -> rows.stream()
+                        .map(row -> new PermissionHoldersResponse.Holder(row.get("id", Long.class),
+                                row.get("username", String.class), row.get("email", String.class),
+                                row.get("enabled", Boolean.class)))
+                        .toList());
+        Long totalUsers = includeTotal ? userRepository.countUsersByRoleIds(roleIds) : null;
+        return new PermissionHoldersResponse(permissionNames, roleIds, users.items(), users.nextCursor(), totalUsers);
+    }
+    
+    // Probes user_roles per user, so walking the (username, id) index stops once the page is full
+    private static Specification<User> holdsAnyRole(List<Long> roleIds) {
+        return (root, query, cb) -> {
+            Subquery<Long> grants = query.subquery(Long.class);
+            Root<User> holder = grants.correlate(root);
+            Join<User, Role> role = holder.join("roles");
+            grants.select(role.get("id")).where(role.get("id").in(roleIds));
+            return cb.exists(grants);
+        };
+    }
+    
     public Permission createPermission(Permission permission) {
         if (permissionRepository.existsByName(permission.getName())) {
             throw new RuntimeException("Permission name is already taken!");
@@ -53,7 +183,9 @@ public class PermissionService {
         validatePermissionFormat(permission.getName());
         
         logger.info("Creating permission: {}", permission.getName());
-        return permissionRepository.save(permission);
+        Permission savedPermission = permissionRepository.save(permission);
+        eventPublisher.publishEvent(new PermissionCatalogChangedEvent(savedPermission.getId()));
+        return savedPermission;
     }
     
     public Permission updatePermission(Long id, Permission permissionDetails) {
@@ -71,6 +203,7 @@ public class PermissionService {
         permission.setDescription(permissionDetails.getDescription());
         
         logger.info("Updating permission: {}", permission.getName());
+        eventPublisher.publishEvent(new PermissionCatalogChangedEvent(id));
         return permissionRepository.save(permission);
     }
     
@@ -78,8 +211,16 @@ public class PermissionService {
         Permission permission = permissionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Permission not found with id: " + id));
         
+        // Removing the rules with it would leave their routes open to every authenticated user
+        long routeRules = routePermissionRepository.countByPermissionId(id);
+        if (routeRules > 0) {
+            throw new ConflictException("Permission " + permission.getName() + " guards " + routeRules +
+                    " route rule(s); delete or reassign them first");
+        }
+        
         logger.info("Deleting permission: {}", permission.getName());
         permissionRepository.delete(permission);
+        eventPublisher.publishEvent(new PermissionCatalogChangedEvent(id));
     }
     
     public boolean existsByName(String name) {
@@ -1,18 +1,43 @@
 package com.stateloan.lms.service;
 
+import com.stateloan.lms.dto.BulkAssignmentResponse;
+import com.stateloan.lms.dto.BulkRolePermissionsRequest;
+import com.stateloan.lms.dto.CursorPage;
+import com.stateloan.lms.dto.CursorRequest;
+import com.stateloan.lms.dto.RoleResponse;
 import com.stateloan.lms.entity.Permission;
 import com.stateloan.lms.entity.Role;
+import com.stateloan.lms.event.RoleGraphChangedEvent;
+import com.stateloan.lms.event.RoleHoldersChangedEvent;
+import com.stateloan.lms.event.UserAuthorizationChangedEvent;
+import com.stateloan.lms.repository.AssignmentRepository;
+import com.stateloan.lms.repository.ListingSpecifications;
 import com.stateloan.lms.repository.PermissionRepository;
 import com.stateloan.lms.repository.RoleRepository;
+import com.stateloan.lms.repository.UserAuthzVersionView;
+import com.stateloan.lms.repository.UserRepository;
+import com.stateloan.lms.security.RoleHierarchyRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -20,16 +45,79 @@ public class RoleService {
     
     private static final Logger logger = LoggerFactory.getLogger(RoleService.class);
     
+    private static final List<String> ROLE_COLUMNS = List.of("id", "name", "description", "createdAt", "updatedAt");
+    
+    // Users per UserAuthorizationChangedEvent, so each relayed notification stays under the payload limit
+    private static final int AUTHZ_EVENT_SLICE = 100;
+    
     @Autowired
     private RoleRepository roleRepository;
     
     @Autowired
     private PermissionRepository permissionRepository;
     
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    
+    @Autowired
+    private RoleHierarchyRegistry roleHierarchyRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+    
+    @Value("${security.role-holders.event-threshold:1000}")
+    private int roleHoldersEventThreshold;
+    
     public List<Role> findAll() {
         return roleRepository.findAll();
     }
     
+    /**
+     * The role's columns and parent ids, plus its permission names when asked for, without loading
+     * the entity or its eager permission set.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RoleResponse> findResponseById(Long id, boolean withPermissions) {
+        return roleRepository.findRowById(id)
+                .map(row -> RoleResponse.from(row, findParentIds(List.of(id)).getOrDefault(id, Set.of()),
+                        withPermissions ? roleRepository.findPermissionNamesByRoleId(id) : null));
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<RoleResponse> findPage(String name, CursorRequest request) {
+        Specification<Role> filter = ListingSpecifications.startsWith("name", name);
+        return keysetPaginator.page(Role.class, filter, request, ROLE_COLUMNS, rows -> {
+            Map<Long, Set<Long>> parentIds = findParentIds(rows.stream()
+                    .map(row -> row.get("id", Long.class))
+                    .toList());
+            return rows.stream()
+                    .map(row -> {
+                        Long id = row.get("id", Long.class);
+                        return new RoleResponse(id, row.get("name", String.class), row.get("description", String.class),
+                                parentIds.getOrDefault(id, Set.of()), null,
+                                row.get("createdAt", LocalDateTime.class), row.get("updatedAt", LocalDateTime.class));
+                    })
+                    .toList();
+        });
+    }
+    
+    private Map<Long, Set<Long>> findParentIds(List<Long> roleIds) {
+        if (roleIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Set<Long>> parentIds = new HashMap<>();
+        for (Object[] edge : roleRepository.findParentEdgesByRoleIds(roleIds)) {
+            parentIds.computeIfAbsent((Long) edge[0], id -> new HashSet<>()).add((Long) edge[1]);
+        }
+        return parentIds;
+    }
+    
     public Optional<Role> findById(Long id) {
         return roleRepository.findById(id);
     }
@@ -51,12 +139,18 @@ public class RoleService {
             throw new RuntimeException("Role name is already taken!");
         }
         
+        if (role.getRequestedParentIds() != null) {
+            role.setParents(findParents(null, role.getRequestedParentIds()));
+        }
+        
         logger.info("Creating role: {}", role.getName());
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(new RoleGraphChangedEvent(savedRole.getId()));
+        return savedRole;
     }
     
     public Role updateRole(Long id, Role roleDetails) {
-        Role role = roleRepository.findById(id)
+        Role role = roleRepository.findByIdWithPermissions(id)
                 .orElseThrow(() -> new RuntimeException("Role not found with id: " + id));
         
         if (!role.getName().equals(roleDetails.getName()) && 
@@ -64,9 +158,22 @@ public class RoleService {
             throw new RuntimeException("Role name is already taken!");
         }
         
+        boolean renamed = !role.getName().equals(roleDetails.getName());
         role.setName(roleDetails.getName());
         role.setDescription(roleDetails.getDescription());
         
+        // Also on a rename, so other instances drop the role from their second-level cache. Published
+        // before the authz bump: after commit the closure must reload before principals are evicted
+        eventPublisher.publishEvent(new RoleGraphChangedEvent(id));
+        if (roleDetails.getRequestedParentIds() != null) {
+            role.getParents().clear();
+            role.getParents().addAll(findParents(id, roleDetails.getRequestedParentIds()));
+            bumpAuthzVersionForRole(id);
+        } else if (renamed) {
+            // Direct holders carry the old name in their tokens' roles claim
+            bumpAuthzVersionForHolders(Set.of(id));
+        }
+        
         logger.info("Updating role: {}", role.getName());
         return roleRepository.save(role);
     }
@@ -76,6 +183,9 @@ public class RoleService {
                 .orElseThrow(() -> new RuntimeException("Role not found with id: " + id));
         
         logger.info("Deleting role: {}", role.getName());
+        eventPublisher.publishEvent(new RoleGraphChangedEvent(id));
+        bumpAuthzVersionForRole(id);
+        roleRepository.deleteChildLinks(id);
         roleRepository.delete(role);
     }
     
@@ -91,6 +201,8 @@ public class RoleService {
         
         role.getPermissions().clear();
         permissions.forEach(role::addPermission);
+        eventPublisher.publishEvent(new RoleGraphChangedEvent(roleId));
+        bumpAuthzVersionForRole(roleId);
         
         logger.info("Assigning permissions {} to role: {}", permissionIds, role.getName());
         return roleRepository.save(role);
@@ -114,6 +226,8 @@ public class RoleService {
         Permission permission = permissionOpt.get();
         
         role.addPermission(permission);
+        eventPublisher.publishEvent(new RoleGraphChangedEvent(roleId));
+        bumpAuthzVersionForRole(roleId);
         
         logger.info("Adding permission {} to role: {}", permission.getName(), role.getName());
         return roleRepository.save(role);
@@ -127,12 +241,132 @@ public class RoleService {
                 .orElseThrow(() -> new RuntimeException("Permission not found with id: " + permissionId));
         
         role.removePermission(permission);
+        eventPublisher.publishEvent(new RoleGraphChangedEvent(roleId));
+        bumpAuthzVersionForRole(roleId);
         
         logger.info("Removing permission {} from role: {}", permission.getName(), role.getName());
         return roleRepository.save(role);
     }
     
+    /**
+     * Grants and revokes permissions on several roles at once, with one set-based statement per
+     * direction. Grants already present and revocations of absent grants are skipped; the counts
+     * report rows actually written.
+     */
+    public BulkAssignmentResponse bulkUpdatePermissions(BulkRolePermissionsRequest request) {
+        Set<Long> roleIds = request.roleIds() == null ? Set.of() : request.roleIds();
+        Set<Long> addIds = request.addPermissionIds() == null ? Set.of() : request.addPermissionIds();
+        Set<Long> removeIds = request.removePermissionIds() == null ? Set.of() : request.removePermissionIds();
+        
+        if (roleIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one role id is required");
+        }
+        if (addIds.isEmpty() && removeIds.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to add or remove");
+        }
+        if (!Collections.disjoint(addIds, removeIds)) {
+            throw new IllegalArgumentException("A permission cannot be both added and removed");
+        }
+        if (roleRepository.findByIdIn(roleIds).size() != roleIds.size()) {
+            throw new RuntimeException("Some roles were not found");
+        }
+        Set<Long> permissionIds = new HashSet<>(addIds);
+        permissionIds.addAll(removeIds);
+        if (permissionRepository.findByIdIn(permissionIds).size() != permissionIds.size()) {
+            throw new RuntimeException("Some permissions were not found");
+        }
+        
+        List<Long> added = addIds.isEmpty() ? List.of() : assignmentRepository.insertRolePermissions(roleIds, addIds);
+        List<Long> removed = removeIds.isEmpty() ? List.of() : assignmentRepository.deleteRolePermissions(roleIds, removeIds);
+        
+        Set<Long> changedRoles = new HashSet<>(added);
+        changedRoles.addAll(removed);
+        if (!changedRoles.isEmpty()) {
+            eventPublisher.publishEvent(new RoleGraphChangedEvent(
+                    changedRoles.size() == 1 ? changedRoles.iterator().next() : null));
+            bumpAuthzVersionForRoles(changedRoles);
+        }
+        
+        logger.info("Bulk permission update on {} roles: {} grants added, {} removed",
+                changedRoles.size(), added.size(), removed.size());
+        return new BulkAssignmentResponse(added.size(), removed.size(), changedRoles.size());
+    }
+    
     public boolean existsByName(String name) {
         return roleRepository.existsByName(name);
     }
+    
+    /**
+     * Loads the requested parent roles, rejecting unknown ids and any parent that would make the
+     * role its own ancestor.
+     */
+    private Set<Role> findParents(Long roleId, Set<Long> parentIds) {
+        if (parentIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        
+        Set<Role> parents = roleRepository.findByIdIn(parentIds);
+        if (parents.size() != parentIds.size()) {
+            throw new RuntimeException("Some parent roles were not found");
+        }
+        
+        if (roleId != null) {
+            Map<Long, Set<Long>> parentEdges = new HashMap<>();
+            for (Object[] edge : roleRepository.findAllParentEdges()) {
+                parentEdges.computeIfAbsent((Long) edge[0], id -> new HashSet<>()).add((Long) edge[1]);
+            }
+            parentEdges.remove(roleId);
+            
+            Deque<Long> pending = new ArrayDeque<>(parentIds);
+            Set<Long> visited = new HashSet<>();
+            while (!pending.isEmpty()) {
+                Long ancestorId = pending.pop();
+                if (ancestorId.equals(roleId)) {
+                    throw new RuntimeException("Role hierarchy cycle: role " + roleId + " would inherit from itself");
+                }
+                if (visited.add(ancestorId)) {
+                    pending.addAll(parentEdges.getOrDefault(ancestorId, Set.of()));
+                }
+            }
+        }
+        
+        return parents;
+    }
+    
+    private void bumpAuthzVersionForRole(Long roleId) {
+        bumpAuthzVersionForRoles(Set.of(roleId));
+    }
+    
+    // Holders of the roles and of every role inheriting from them see the change
+    private void bumpAuthzVersionForRoles(Collection<Long> changedRoleIds) {
+        Set<Long> roleIds = new HashSet<>();
+        changedRoleIds.forEach(roleId -> roleIds.addAll(roleHierarchyRegistry.getDescendants(roleId)));
+        bumpAuthzVersionForHolders(roleIds);
+    }
+    
+    /**
+     * Bumps the direct holders of the roles. Up to the threshold their new versions are published in
+     * slices; beyond it, as for a base role every account holds, one role-scoped event lets each
+     * instance read the versions itself instead of this one loading every holder.
+     */
+    private void bumpAuthzVersionForHolders(Set<Long> roleIds) {
+        int bumped = userRepository.incrementAuthzVersionByRoleIds(roleIds);
+        if (bumped == 0) {
+            return;
+        }
+        if (bumped > roleHoldersEventThreshold) {
+            logger.info("Authorization version bumped for {} holders of roles {}", bumped, roleIds);
+            eventPublisher.publishEvent(new RoleHoldersChangedEvent(Set.copyOf(roleIds)));
+            return;
+        }
+        
+        List<UserAuthzVersionView> holders = userRepository.findAuthzVersionsByRoleIds(roleIds);
+        for (int start = 0; start < holders.size(); start += AUTHZ_EVENT_SLICE) {
+            List<UserAuthzVersionView> slice =
+                    holders.subList(start, Math.min(start + AUTHZ_EVENT_SLICE, holders.size()));
+            eventPublisher.publishEvent(new UserAuthorizationChangedEvent(
+                    slice.stream().collect(Collectors.toMap(UserAuthzVersionView::getId, UserAuthzVersionView::getAuthzVersion)),
+                    slice.stream().map(UserAuthzVersionView::getUsername).collect(Collectors.toSet())));
+        }
+    }
 }
\ No newline at end of file
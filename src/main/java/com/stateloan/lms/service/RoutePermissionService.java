@@ -0,0 +1,92 @@
+package com.stateloan.lms.service;
+
+import com.stateloan.lms.dto.RoutePermissionRequest;
+import com.stateloan.lms.entity.Permission;
+import com.stateloan.lms.entity.RoutePermission;
+import com.stateloan.lms.event.RoutePermissionsChangedEvent;
+import com.stateloan.lms.repository.PermissionRepository;
+import com.stateloan.lms.repository.RoutePermissionRepository;
+import com.stateloan.lms.security.RouteAuthorizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+@Service
+@Transactional
+public class RoutePermissionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RoutePermissionService.class);
+    
+    @Autowired
+    private RoutePermissionRepository routePermissionRepository;
+    
+    @Autowired
+    private PermissionRepository permissionRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    public List<RoutePermission> findAll() {
+        return routePermissionRepository.findAllWithPermission();
+    }
+    
+    public boolean existsByPathPattern(String pathPattern) {
+        return routePermissionRepository.existsByPathPattern(pathPattern);
+    }
+    
+    public RoutePermission createRoutePermission(RoutePermissionRequest request) {
+        RoutePermission routePermission = new RoutePermission();
+        apply(routePermission, request);
+        
+        logger.info("Creating route rule: {} {} -> {}", routePermission.getHttpMethod(),
+                routePermission.getPathPattern(), request.permission());
+        RoutePermission savedRoutePermission = routePermissionRepository.save(routePermission);
+        eventPublisher.publishEvent(new RoutePermissionsChangedEvent(savedRoutePermission.getId()));
+        return savedRoutePermission;
+    }
+    
+    public RoutePermission updateRoutePermission(Long id, RoutePermissionRequest request) {
+        RoutePermission routePermission = routePermissionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Route rule not found with id: " + id));
+        
+        apply(routePermission, request);
+        
+        logger.info("Updating route rule {}: {} {} -> {}", id, routePermission.getHttpMethod(),
+                routePermission.getPathPattern(), request.permission());
+        eventPublisher.publishEvent(new RoutePermissionsChangedEvent(id));
+        return routePermissionRepository.save(routePermission);
+    }
+    
+    public void deleteRoutePermission(Long id) {
+        RoutePermission routePermission = routePermissionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Route rule not found with id: " + id));
+        
+        logger.info("Deleting route rule {}: {} {}", id, routePermission.getHttpMethod(),
+                routePermission.getPathPattern());
+        routePermissionRepository.delete(routePermission);
+        eventPublisher.publishEvent(new RoutePermissionsChangedEvent(id));
+    }
+    
+    private void apply(RoutePermission routePermission, RoutePermissionRequest request) {
+        try {
+            RouteAuthorizationManager.validatePattern(request.pathPattern());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        
+        Permission permission = permissionRepository.findByName(request.permission())
+                .orElseThrow(() -> new RuntimeException("Permission not found with name: " + request.permission()));
+        
+        routePermission.setHttpMethod(StringUtils.hasText(request.httpMethod())
+                ? request.httpMethod().trim().toUpperCase() : null);
+        routePermission.setPathPattern(request.pathPattern().trim());
+        routePermission.setPermission(permission);
+        routePermission.setPriority(request.priority() != null ? request.priority() : 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.stateloan.lms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.stateloan.lms.dto.IntrospectionResponse;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.PermissionCatalogChangedEvent;
+import com.stateloan.lms.security.AuthorizationVersionRegistry;
+import com.stateloan.lms.security.JwtUtils;
+import com.stateloan.lms.security.PermissionIndexRegistry;
+import com.stateloan.lms.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * RFC 7662 introspection of the tokens issued by {@link JwtUtils}, for services that must not hold
+ * the signing secret. Responses for valid tokens are cached by token digest until the token
+ * expires or the permission catalog changes; revocation and authorization-version checks still run
+ * on every call.
+ */
+@Service
+public class TokenIntrospectionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenIntrospectionService.class);
+    
+    @Autowired
+    private JwtUtils jwtUtils;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private AuthorizationVersionRegistry authorizationVersionRegistry;
+    
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${jwt.introspection.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    @Value("${jwt.introspection.max-age:PT30S}")
+    private Duration maxAge;
+    
+    private Cache<String, Introspection> introspectionCache;
+    
+    @PostConstruct
+    public void init() {
+        introspectionCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new IntrospectionExpiry())
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, introspectionCache, "jwt.introspection");
+    }
+    
+    public IntrospectionResponse introspect(String token) {
+        if (!StringUtils.hasText(token)) {
+            return IntrospectionResponse.INACTIVE;
+        }
+        
+        String digest = JwtUtils.tokenDigest(token);
+        Introspection introspection = introspectionCache.getIfPresent(digest);
+        if (introspection == null) {
+            // Invalid tokens are not cached, so garbage input cannot evict live entries
+            Claims claims = jwtUtils.verifyJwtToken(token).orElse(null);
+            if (claims == null) {
+                return IntrospectionResponse.INACTIVE;
+            }
+            introspection = build(claims);
+            introspectionCache.put(digest, introspection);
+        }
+        
+        IntrospectionResponse response = introspection.response();
+        if (introspection.expiresAtMillis() <= System.currentTimeMillis() ||
+                tokenRevocationService.isRevoked(response.jti())) {
+            return IntrospectionResponse.INACTIVE;
+        }
+        
+        if (response.authorities() == null ||
+                !authorizationVersionRegistry.isCurrent(response.userId(), introspection.authzVersion())) {
+            return currentAuthorities(response);
+        }
+        
+        return response;
+    }
+    
+    // Cached authority names were decoded against the previous permission index; runs after it reloads
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onPermissionCatalogChanged(PermissionCatalogChangedEvent event) {
+        introspectionCache.invalidateAll();
+    }
+    
+    @EventListener
+    public void onCacheFlush(CacheFlushEvent event) {
+        introspectionCache.invalidateAll();
+    }
+    
+    /**
+     * How long a caller may reuse an active response: until the token expires, capped so that
+     * revocations reach remote caches quickly.
+     */
+    public Duration getCacheLifetime(IntrospectionResponse response) {
+        if (!response.active() || response.exp() == null) {
+            return Duration.ZERO;
+        }
+        long remainingSeconds = response.exp() - System.currentTimeMillis() / 1000;
+        return Duration.ofSeconds(Math.max(0, Math.min(remainingSeconds, maxAge.toSeconds())));
+    }
+    
+    private Introspection build(Claims claims) {
+        UserPrincipal principal = UserPrincipal.fromClaims(claims, permissionIndexRegistry);
+        List<String> authorities = principal != null ? authorityNames(principal) : null;
+        
+        IntrospectionResponse response = new IntrospectionResponse(
+                true,
+                claims.getSubject(),
+                claims.get("id", Long.class),
+                authorities,
+                "Bearer",
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : null,
+                claims.getExpiration().getTime() / 1000,
+                claims.getId());
+        
+        return new Introspection(response, claims.get("authz_ver", Long.class),
+                claims.getExpiration().getTime());
+    }
+    
+    // The token's authorities are stale or undecodable; answer from the current principal instead
+    private IntrospectionResponse currentAuthorities(IntrospectionResponse response) {
+        try {
+            UserDetails principal = userDetailsService.loadUserByUsername(response.sub());
+            if (!principal.isEnabled()) {
+                return IntrospectionResponse.INACTIVE;
+            }
+            return response.withAuthorities(authorityNames(principal));
+        } catch (UsernameNotFoundException e) {
+            logger.debug("Introspected token belongs to a deleted user: {}", response.sub());
+            return IntrospectionResponse.INACTIVE;
+        }
+    }
+    
+    private static List<String> authorityNames(UserDetails principal) {
+        return principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+    }
+    
+    private record Introspection(IntrospectionResponse response, Long authzVersion, long expiresAtMillis) {
+    }
+    
+    private static class IntrospectionExpiry implements Expiry<String, Introspection> {
+        
+        @Override
+        public long expireAfterCreate(String key, Introspection introspection, long currentTime) {
+            long remainingMillis = introspection.expiresAtMillis() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(0, remainingMillis)).toNanos();
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Introspection introspection, long currentTime,
+                                      long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Introspection introspection, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.stateloan.lms.service;
+
+import com.stateloan.lms.entity.RevokedToken;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.TokenRevokedEvent;
+import com.stateloan.lms.repository.RevokedTokenRepository;
+import com.stateloan.lms.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of revoked token ids. Revocations are persisted with the token's expiry; lookups go
+ * through an in-memory Bloom filter first, and only probable hits are confirmed against the
+ * exact set, so the common not-revoked case never does I/O.
+ */
+@Service
+public class TokenRevocationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private long expectedRevocations;
+    
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+    
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    
+    private volatile BloomFilter revokedFilter;
+    
+    @PostConstruct
+    public void init() {
+        load();
+        Gauge.builder("jwt.revoked.tokens", revokedTokens, Map::size).register(meterRegistry);
+    }
+    
+    private void load() {
+        revokedTokenRepository.findByExpiresAtAfter(Instant.now())
+                .forEach(token -> revokedTokens.put(token.getJti(), token.getExpiresAt()));
+        rebuildFilter();
+        logger.info("Loaded {} revoked tokens", revokedTokens.size());
+    }
+    
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        eventPublisher.publishEvent(new TokenRevokedEvent(jti, expiresAt));
+        
+        logger.info("Revoked token {} until {}", jti, expiresAt);
+    }
+    
+    // Applies local revocations once committed, and revocations made on other instances
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        synchronized (this) {
+            revokedTokens.put(event.jti(), event.expiresAt());
+            revokedFilter.add(event.jti());
+        }
+    }
+    
+    @EventListener
+    public void onCacheFlush(CacheFlushEvent event) {
+        load();
+    }
+    
+    public boolean isRevoked(String jti) {
+        if (jti == null || !revokedFilter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokens.containsKey(jti);
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        rebuildFilter();
+        
+        if (deleted > 0) {
+            logger.info("Purged {} expired revoked tokens", deleted);
+        }
+    }
+    
+    // Synchronized with revoke so a revocation cannot slip past a concurrent rebuild
+    private synchronized void rebuildFilter() {
+        BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, revokedTokens.size() * 2L), falsePositiveRate);
+        revokedTokens.keySet().forEach(filter::add);
+        revokedFilter = filter;
+    }
+}
\ No newline at end of file
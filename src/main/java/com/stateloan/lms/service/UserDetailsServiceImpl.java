@@ -1,14 +1,36 @@
 package com.stateloan.lms.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.stateloan.lms.entity.User;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.PermissionCatalogChangedEvent;
+import com.stateloan.lms.event.RoleHoldersChangedEvent;
+import com.stateloan.lms.event.UserAuthorizationChangedEvent;
 import com.stateloan.lms.repository.UserRepository;
+import com.stateloan.lms.security.AuthorizationVersionRegistry;
+import com.stateloan.lms.security.PermissionIndexRegistry;
+import com.stateloan.lms.security.RoleHierarchyRegistry;
 import com.stateloan.lms.security.UserPrincipal;
+import com.stateloan.lms.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -16,12 +38,112 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PermissionIndexRegistry permissionIndexRegistry;
+    
+    @Autowired
+    private RoleHierarchyRegistry roleHierarchyRegistry;
+    
+    @Autowired
+    private AuthorizationVersionRegistry authorizationVersionRegistry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${security.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+    
+    @Value("${security.principal-cache.ttl:PT5M}")
+    private Duration principalCacheTtl;
+    
+    private Cache<String, UserPrincipal> principalCache;
+    
+    // Incremented on every eviction so a load that raced with a mutation is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    // Parallel requests carrying the same token share one database load
+    private final SingleFlight<String, UserPrincipal> principalLoads = new SingleFlight<>();
+    
+    @PostConstruct
+    public void init() {
+        principalCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(principalCacheTtl)
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, principalCache, "security.principals");
+        Gauge.builder("security.principals.hit.ratio", principalCache, cache -> cache.stats().hitRate())
+                .register(meterRegistry);
+        FunctionCounter.builder("security.principals.loads.coalesced", principalLoads,
+                SingleFlight::getCoalescedCount).register(meterRegistry);
+        Gauge.builder("security.principals.loads.active", principalLoads, SingleFlight::getInFlightCount)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Served from the principal cache when possible. Not transactional: a cache hit must not
+     * check out a connection, and a miss runs the single fetch-join query in the repository's
+     * own read transaction. Concurrent misses for the same username share that one query.
+     */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserPrincipal cached = principalCache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        
+        return principalLoads.execute(username, () -> loadPrincipal(username));
+    }
+    
+    private UserPrincipal loadPrincipal(String username) {
+        // A load that finished just before this flight started may already have filled the cache
+        UserPrincipal cached = principalCache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        
+        long generation = invalidations.get();
+        
         User user = userRepository.findByUsernameWithRolesAndPermissions(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
         
-        return UserPrincipal.create(user);
+        UserPrincipal principal = UserPrincipal.create(user, permissionIndexRegistry, roleHierarchyRegistry);
+        authorizationVersionRegistry.observe(user.getId(), user.getAuthzVersion());
+        
+        if (invalidations.get() == generation) {
+            principalCache.put(username, principal);
+        }
+        
+        return principal;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAuthorizationChanged(UserAuthorizationChangedEvent event) {
+        invalidations.incrementAndGet();
+        principalCache.invalidateAll(event.usernames());
+    }
+    
+    // Too many holders to name; most cached principals hold a base role anyway
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleHoldersChanged(RoleHoldersChangedEvent event) {
+        invalidations.incrementAndGet();
+        principalCache.invalidateAll();
+    }
+    
+    // Cached principals hold bits in the previous index layout; runs after the registries reload
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onPermissionCatalogChanged(PermissionCatalogChangedEvent event) {
+        invalidations.incrementAndGet();
+        principalCache.invalidateAll();
+    }
+    
+    // Runs after the permission and role registries have reloaded, so rebuilt principals see them
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCacheFlush(CacheFlushEvent event) {
+        invalidations.incrementAndGet();
+        principalCache.invalidateAll();
     }
 }
\ No newline at end of file
@@ -0,0 +1,397 @@
+package com.stateloan.lms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stateloan.lms.dto.RegisterRequest;
+import com.stateloan.lms.dto.UserImportReport;
+import com.stateloan.lms.dto.UserImportRow;
+import com.stateloan.lms.event.UserIdentifiersAddedEvent;
+import com.stateloan.lms.exception.TooManyRequestsException;
+import com.stateloan.lms.exception.UserImportAbortedException;
+import com.stateloan.lms.repository.RoleRepository;
+import com.stateloan.lms.security.BoundedPasswordEncoder;
+import com.stateloan.lms.util.BoundedLineReader;
+import com.stateloan.lms.util.CsvLine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Imports accounts from a CSV or NDJSON stream. Rows are parsed and validated as they are read and
+ * collected into chunks; each chunk's passwords are hashed in parallel on a dedicated pool, then the
+ * chunk is written in one transaction: one set-based insert of the accounts, skipping any whose
+ * username or email is taken, and one batch of role assignments. At most one chunk and the capped
+ * error list are held at a time, so memory does not depend on the size of the upload. Only one
+ * import runs per instance.
+ */
+@Service
+public class UserImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+    
+    // Identifiers per availability event, keeping each cluster notification under the payload limit
+    private static final int EVENT_SLICE = 50;
+    
+    private static final String INSERT_USERS =
+            "INSERT INTO users (username, email, password, enabled, authz_version, created_at, updated_at) " +
+            "SELECT username, email, password, true, 0, now(), now() " +
+            "FROM unnest(?::text[], ?::text[], ?::text[]) AS input(username, email, password) " +
+            "ON CONFLICT DO NOTHING RETURNING id, username, email";
+    
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    
+    public enum Format { CSV, NDJSON }
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private RoleRepository roleRepository;
+    
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${security.user-import.hashing-threads:4}")
+    private int hashingThreads;
+    
+    @Value("${security.user-import.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${security.user-import.max-errors:1000}")
+    private int maxErrorsLimit;
+    
+    @Value("${security.user-import.max-line-length:8192}")
+    private int maxLineLength;
+    
+    private final Semaphore running = new Semaphore(1);
+    
+    private ExecutorService hashingExecutor;
+    private Counter importedCounter;
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        hashingExecutor = Executors.newFixedThreadPool(hashingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        importedCounter = Counter.builder("users.import.rows").tag("outcome", "imported").register(meterRegistry);
+        failedCounter = Counter.builder("users.import.rows").tag("outcome", "failed").register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdownNow();
+    }
+    
+    public UserImportReport importUsers(Reader input, Format format, int maxErrors) throws IOException {
+        if (maxErrors < 0 || maxErrors > maxErrorsLimit) {
+            throw new IllegalArgumentException("maxErrors must be between 0 and " + maxErrorsLimit);
+        }
+        if (!running.tryAcquire()) {
+            throw new TooManyRequestsException("Another user import is running, please retry later", 30);
+        }
+        
+        try {
+            long start = System.nanoTime();
+            Report report = new Report(maxErrors);
+            try {
+                read(new BoundedLineReader(input, maxLineLength), format, loadRoleIds(), report);
+            } catch (IOException | RuntimeException e) {
+                // Chunks written before the failure stay committed, so their outcome is still reported
+                if (report.imported == 0) {
+                    throw e;
+                }
+                logger.error("User import aborted after {} imported rows", report.imported, e);
+                throw new UserImportAbortedException(report.toResponse("Import stopped at an unexpected error; "
+                        + "rows counted as imported were committed"), e);
+            } finally {
+                importedCounter.increment(report.imported);
+                failedCounter.increment(report.failed);
+            }
+            
+            logger.info("Imported {} of {} users ({} rejected) in {} ms", report.imported, report.rowsRead,
+                    report.failed, (System.nanoTime() - start) / 1_000_000);
+            return report.toResponse(null);
+        } finally {
+            running.release();
+        }
+    }
+    
+    private Map<String, Long> loadRoleIds() {
+        Map<String, Long> roleIds = new HashMap<>();
+        for (Object[] role : roleRepository.findAllNamesAndIds()) {
+            roleIds.put((String) role[0], (Long) role[1]);
+        }
+        if (!roleIds.containsKey(UserService.DEFAULT_ROLE)) {
+            throw new RuntimeException("Default " + UserService.DEFAULT_ROLE + " role not found");
+        }
+        return roleIds;
+    }
+    
+    private void read(BoundedLineReader reader, Format format, Map<String, Long> roleIds, Report report)
+            throws IOException {
+        Map<String, Integer> columns = null;
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = parseHeader(line.startsWith("\uFEFF") ? line.substring(1) : line);
+                continue;
+            }
+            
+            report.rowsRead++;
+            if (reader.wasTruncated()) {
+                report.reject(lineNumber, null, "Line is longer than " + maxLineLength + " characters");
+                continue;
+            }
+            
+            UserImportRow row;
+            try {
+                row = format == Format.CSV ? parseCsv(line, columns) : objectMapper.readValue(line, UserImportRow.class);
+            } catch (JsonProcessingException e) {
+                report.reject(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                report.reject(lineNumber, null, e.getMessage());
+                continue;
+            }
+            
+            PendingRow pending;
+            try {
+                pending = validate(lineNumber, row, roleIds);
+            } catch (IllegalArgumentException e) {
+                report.reject(lineNumber, row.username(), e.getMessage());
+                continue;
+            }
+            
+            chunk.add(pending);
+            if (chunk.size() == chunkSize) {
+                write(chunk, report);
+                chunk.clear();
+            }
+        }
+        
+        if (!chunk.isEmpty()) {
+            write(chunk, report);
+        }
+    }
+    
+    private static Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvLine.split(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must name the username, email and password columns");
+            }
+        }
+        return columns;
+    }
+    
+    // Roles are separated by '|' within their column
+    private static UserImportRow parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvLine.split(line);
+        String roles = field(fields, columns.get("roles"));
+        return new UserImportRow(field(fields, columns.get("username")), field(fields, columns.get("email")),
+                field(fields, columns.get("password")),
+                StringUtils.hasText(roles) ? List.of(roles.split("\\|")) : null);
+    }
+    
+    private static String field(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+    
+    private PendingRow validate(long lineNumber, UserImportRow row, Map<String, Long> roleIds) {
+        String username = row.username() != null ? row.username().trim() : null;
+        String email = row.email() != null ? row.email().trim() : null;
+        
+        Set<ConstraintViolation<RegisterRequest>> violations =
+                validator.validate(new RegisterRequest(username, email, row.password()));
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        
+        Set<Long> rowRoleIds = new LinkedHashSet<>();
+        if (row.roles() == null || row.roles().isEmpty()) {
+            rowRoleIds.add(roleIds.get(UserService.DEFAULT_ROLE));
+        } else {
+            for (String roleName : row.roles()) {
+                Long roleId = roleIds.get(roleName.trim());
+                if (roleId == null) {
+                    throw new IllegalArgumentException("Unknown role: " + roleName.trim());
+                }
+                rowRoleIds.add(roleId);
+            }
+        }
+        
+        return new PendingRow(lineNumber, username, email, row.password(), rowRoleIds);
+    }
+    
+    private void write(List<PendingRow> chunk, Report report) {
+        String[] passwords = hash(chunk);
+        
+        List<PendingRow> inserted = transactionTemplate.execute(status -> {
+            Map<String, Long> ids = insertUsers(chunk, passwords);
+            
+            List<PendingRow> rows = new ArrayList<>();
+            List<Object[]> assignments = new ArrayList<>();
+            for (PendingRow row : chunk) {
+                // The first row with these identifiers claims the id, later duplicates were skipped
+                Long id = ids.remove(row.key());
+                if (id != null) {
+                    rows.add(row);
+                    row.roleIds().forEach(roleId -> assignments.add(new Object[]{id, roleId}));
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, assignments);
+            
+            for (int from = 0; from < rows.size(); from += EVENT_SLICE) {
+                List<PendingRow> slice = rows.subList(from, Math.min(rows.size(), from + EVENT_SLICE));
+                eventPublisher.publishEvent(new UserIdentifiersAddedEvent(
+                        slice.stream().map(PendingRow::username).collect(Collectors.toSet()),
+                        slice.stream().map(PendingRow::email).collect(Collectors.toSet())));
+            }
+            return rows;
+        });
+        
+        Set<PendingRow> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        written.addAll(inserted);
+        for (PendingRow row : chunk) {
+            if (written.contains(row)) {
+                report.imported++;
+            } else {
+                report.reject(row.line(), row.username(), "Username or email is already in use");
+            }
+        }
+    }
+    
+    private String[] hash(List<PendingRow> chunk) {
+        List<Future<String>> futures = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            futures.add(hashingExecutor.submit(() -> passwordEncoder.getDelegate().encode(row.password())));
+        }
+        
+        String[] passwords = new String[chunk.size()];
+        try {
+            for (int i = 0; i < passwords.length; i++) {
+                passwords[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CompletionException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new CompletionException("Password hashing failed", e.getCause());
+        }
+        return passwords;
+    }
+    
+    // Returns the ids of the inserted accounts by username and email
+    private Map<String, Long> insertUsers(List<PendingRow> chunk, String[] passwords) {
+        String[] usernames = chunk.stream().map(PendingRow::username).toArray(String[]::new);
+        String[] emails = chunk.stream().map(PendingRow::email).toArray(String[]::new);
+        
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_USERS);
+            statement.setArray(1, connection.createArrayOf("text", usernames));
+            statement.setArray(2, connection.createArrayOf("text", emails));
+            statement.setArray(3, connection.createArrayOf("text", passwords));
+            return statement;
+        }, resultSet -> {
+            ids.put(key(resultSet.getString("username"), resultSet.getString("email")), resultSet.getLong("id"));
+        });
+        return ids;
+    }
+    
+    private static String key(String username, String email) {
+        return username + '\n' + email;
+    }
+    
+    private record PendingRow(long line, String username, String email, String password, Set<Long> roleIds) {
+        
+        String key() {
+            return UserImportService.key(username, email);
+        }
+    }
+    
+    private static final class Report {
+        
+        private final int maxErrors;
+        private final List<UserImportReport.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+        
+        private void reject(long line, String username, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportReport.RowError(line, username, message));
+            }
+        }
+        
+        private UserImportReport toResponse(String abortedReason) {
+            return new UserImportReport(rowsRead, imported, failed, List.copyOf(errors), failed > errors.size(),
+                    abortedReason);
+        }
+    }
+}
\ No newline at end of file
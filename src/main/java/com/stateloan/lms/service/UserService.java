@@ -1,17 +1,45 @@
 package com.stateloan.lms.service;
 
+import com.stateloan.lms.dto.BulkAssignmentResponse;
+import com.stateloan.lms.dto.BulkUserRolesRequest;
+import com.stateloan.lms.dto.CursorPage;
+import com.stateloan.lms.dto.CursorRequest;
+import com.stateloan.lms.dto.UserResponse;
 import com.stateloan.lms.entity.Role;
 import com.stateloan.lms.entity.User;
+import com.stateloan.lms.event.CacheFlushEvent;
+import com.stateloan.lms.event.RoleGraphChangedEvent;
+import com.stateloan.lms.event.UserAuthorizationChangedEvent;
+import com.stateloan.lms.event.UserIdentifiersAddedEvent;
+import com.stateloan.lms.exception.ConflictException;
+import com.stateloan.lms.repository.AssignmentRepository;
+import com.stateloan.lms.repository.ListingSpecifications;
 import com.stateloan.lms.repository.RoleRepository;
 import com.stateloan.lms.repository.UserRepository;
+import com.stateloan.lms.security.AuthorizationVersionRegistry;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -21,19 +49,99 @@ public class UserService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     
+    static final String DEFAULT_ROLE = "USER";
+    
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    
+    private static final List<String> USER_COLUMNS =
+            List.of("id", "username", "email", "enabled", "createdAt", "updatedAt");
+    
+    private static final int AUTHZ_EVENT_SLICE = 100;
+    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private RoleRepository roleRepository;
     
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+    
+    // Id of the role every new account gets; cleared whenever roles change
+    private volatile Long defaultRoleId;
+    
     public List<User> findAll() {
         return userRepository.findAll();
     }
     
+    /**
+     * Reads the account columns and role names only: one query for the row, one for its roles.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserResponse> findResponseById(Long id) {
+        return userRepository.findRowById(id)
+                .map(row -> UserResponse.from(row, findRoleNames(List.of(id)).getOrDefault(id, List.of())));
+    }
+    
+    /**
+     * One page of users as one column-only query plus one query for the role names of the page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> findPage(String username, String email, Boolean enabled, Long roleId,
+                                             CursorRequest request) {
+        Specification<User> filter = Specification.allOf(
+                ListingSpecifications.startsWith("username", username),
+                ListingSpecifications.startsWith("email", email),
+                ListingSpecifications.equalTo("enabled", enabled),
+                hasRole(roleId));
+        return keysetPaginator.page(User.class, filter, request, USER_COLUMNS, rows -> {
+            Map<Long, List<String>> roleNames = findRoleNames(rows.stream()
+                    .map(row -> row.get("id", Long.class))
+                    .toList());
+            return rows.stream()
+                    .map(row -> {
+                        Long id = row.get("id", Long.class);
+                        return new UserResponse(id, row.get("username", String.class), row.get("email", String.class),
+                                row.get("enabled", Boolean.class), roleNames.getOrDefault(id, List.of()),
+                                row.get("createdAt", LocalDateTime.class), row.get("updatedAt", LocalDateTime.class));
+                    })
+                    .toList();
+        });
+    }
+    
+    private Map<Long, List<String>> findRoleNames(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<String>> roleNames = new HashMap<>();
+        for (Object[] row : userRepository.findRoleNamesByUserIds(userIds)) {
+            roleNames.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return roleNames;
+    }
+    
+    private static Specification<User> hasRole(Long roleId) {
+        return (root, query, cb) -> {
+            if (roleId == null) {
+                return null;
+            }
+            Subquery<Long> holders = query.subquery(Long.class);
+            Root<User> holder = holders.from(User.class);
+            holders.select(holder.get("id")).where(cb.equal(holder.join("roles").get("id"), roleId));
+            return root.get("id").in(holders);
+        };
+    }
+    
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
@@ -50,28 +158,78 @@ public class UserService {
         return userRepository.findByIdWithRoles(id);
     }
     
-    public User createUser(User user) {
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new RuntimeException("Username is already taken!");
-        }
+    /**
+     * Self-service registration as a single insert of the account and its default role. Nothing
+     * is checked beforehand: the unique constraints on username and email decide, and a violation
+     * becomes a {@link ConflictException}. Runs outside a transaction so no connection is held
+     * while the password is hashed; the insert commits on its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void registerUser(String username, String email, String rawPassword) {
+        String encodedPassword = passwordEncoder.encode(rawPassword);
         
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email is already in use!");
+        logger.info("Registering user: {}", username);
+        try {
+            userRepository.insertWithRole(username, email, encodedPassword, getDefaultRoleId());
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation(e);
         }
-        
+        eventPublisher.publishEvent(new UserIdentifiersAddedEvent(Set.of(username), Set.of(email)));
+    }
+    
+    /**
+     * Saves the user with the default role attached by its cached id. Like registration it relies
+     * on the unique constraints rather than checking for duplicates first.
+     */
+    public User createUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        
-        Role defaultRole = roleRepository.findByName("USER")
-                .orElseThrow(() -> new RuntimeException("Default USER role not found"));
-        
-        user.addRole(defaultRole);
+        user.getRoles().add(roleRepository.getReferenceById(getDefaultRoleId()));
         
         logger.info("Creating user: {}", user.getUsername());
-        return userRepository.save(user);
+        try {
+            User savedUser = userRepository.saveAndFlush(user);
+            eventPublisher.publishEvent(new UserIdentifiersAddedEvent(
+                    Set.of(savedUser.getUsername()), Set.of(savedUser.getEmail())));
+            return savedUser;
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation(e);
+        }
+    }
+    
+    private Long getDefaultRoleId() {
+        Long roleId = defaultRoleId;
+        if (roleId == null) {
+            roleId = roleRepository.findIdByName(DEFAULT_ROLE)
+                    .orElseThrow(() -> new RuntimeException("Default " + DEFAULT_ROLE + " role not found"));
+            defaultRoleId = roleId;
+        }
+        return roleId;
+    }
+    
+    /**
+     * Maps the username and email unique constraints to a conflict and a vanished default role to its
+     * error; Postgres names the offending column in the violation detail. Any other violation is a
+     * bug rather than a client error and is rethrown unchanged.
+     */
+    private RuntimeException translateIntegrityViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        String sqlState = cause instanceof SQLException sqlException ? sqlException.getSQLState() : null;
+        String message = String.valueOf(cause.getMessage());
+        if (UNIQUE_VIOLATION.equals(sqlState) && message.contains("Key (username)=")) {
+            return new ConflictException("Username is already taken!");
+        }
+        if (UNIQUE_VIOLATION.equals(sqlState) && message.contains("Key (email)=")) {
+            return new ConflictException("Email is already in use!");
+        }
+        if (FOREIGN_KEY_VIOLATION.equals(sqlState) && message.contains("Key (role_id)=")) {
+            defaultRoleId = null;
+            return new RuntimeException("Default " + DEFAULT_ROLE + " role not found");
+        }
+        return e;
     }
     
     public User updateUser(Long id, User userDetails) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findByIdWithRoles(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
         if (!user.getUsername().equals(userDetails.getUsername()) && 
@@ -84,6 +242,8 @@ public class UserService {
             throw new RuntimeException("Email is already in use!");
         }
         
+        String previousUsername = user.getUsername();
+        
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
         user.setEnabled(userDetails.getEnabled());
@@ -92,6 +252,9 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
         }
         
+        bumpAuthzVersion(user, previousUsername);
+        eventPublisher.publishEvent(new UserIdentifiersAddedEvent(Set.of(user.getUsername()), Set.of(user.getEmail())));
+        
         logger.info("Updating user: {}", user.getUsername());
         return userRepository.save(user);
     }
@@ -101,6 +264,8 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
         logger.info("Deleting user: {}", user.getUsername());
+        eventPublisher.publishEvent(new UserAuthorizationChangedEvent(
+                Map.of(user.getId(), AuthorizationVersionRegistry.DELETED), Set.of(user.getUsername())));
         userRepository.delete(user);
     }
     
@@ -116,6 +281,7 @@ public class UserService {
         
         user.getRoles().clear();
         roles.forEach(user::addRole);
+        bumpAuthzVersion(user);
         
         logger.info("Assigning roles {} to user: {}", roleIds, user.getUsername());
         return userRepository.save(user);
@@ -129,6 +295,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Role not found with id: " + roleId));
         
         user.addRole(role);
+        bumpAuthzVersion(user);
         
         logger.info("Adding role {} to user: {}", role.getName(), user.getUsername());
         return userRepository.save(user);
@@ -142,11 +309,78 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Role not found with id: " + roleId));
         
         user.removeRole(role);
+        bumpAuthzVersion(user);
         
         logger.info("Removing role {} from user: {}", role.getName(), user.getUsername());
         return userRepository.save(user);
     }
     
+    /**
+     * Adds and removes roles for a list of users, or for every user matching a filter, with one
+     * set-based statement per direction. Every user whose roles changed gets a new authz version.
+     */
+    public BulkAssignmentResponse bulkUpdateRoles(BulkUserRolesRequest request) {
+        Set<Long> addIds = request.addRoleIds() == null ? Set.of() : request.addRoleIds();
+        Set<Long> removeIds = request.removeRoleIds() == null ? Set.of() : request.removeRoleIds();
+        
+        if ((request.userIds() == null) == (request.filter() == null)) {
+            throw new IllegalArgumentException("Exactly one of userIds and filter is required");
+        }
+        AssignmentRepository.UserSelection users = request.userIds() != null
+                ? AssignmentRepository.UserSelection.byIds(request.userIds())
+                : AssignmentRepository.UserSelection.byFilter(request.filter());
+        if (users == null || (request.userIds() != null && request.userIds().isEmpty())) {
+            throw new IllegalArgumentException("The user selection is empty");
+        }
+        if (addIds.isEmpty() && removeIds.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to add or remove");
+        }
+        if (!Collections.disjoint(addIds, removeIds)) {
+            throw new IllegalArgumentException("A role cannot be both added and removed");
+        }
+        Set<Long> roleIds = new HashSet<>(addIds);
+        roleIds.addAll(removeIds);
+        if (roleRepository.findByIdIn(roleIds).size() != roleIds.size()) {
+            throw new RuntimeException("Some roles were not found");
+        }
+        
+        List<Long> added = addIds.isEmpty() ? List.of() : assignmentRepository.insertUserRoles(users, addIds);
+        List<Long> removed = removeIds.isEmpty() ? List.of() : assignmentRepository.deleteUserRoles(users, removeIds);
+        
+        Set<Long> changedUsers = new HashSet<>(added);
+        changedUsers.addAll(removed);
+        if (!changedUsers.isEmpty()) {
+            publishAuthzVersions(assignmentRepository.incrementAuthzVersions(changedUsers));
+        }
+        
+        logger.info("Bulk role update on {} users: {} assignments added, {} removed",
+                changedUsers.size(), added.size(), removed.size());
+        return new BulkAssignmentResponse(added.size(), removed.size(), changedUsers.size());
+    }
+    
+    // Sliced so each relayed notification stays well under the pg_notify payload limit
+    private void publishAuthzVersions(List<Object[]> bumped) {
+        for (int start = 0; start < bumped.size(); start += AUTHZ_EVENT_SLICE) {
+            Map<Long, Long> versions = new HashMap<>();
+            Set<String> usernames = new HashSet<>();
+            for (Object[] row : bumped.subList(start, Math.min(start + AUTHZ_EVENT_SLICE, bumped.size()))) {
+                versions.put((Long) row[0], (Long) row[2]);
+                usernames.add((String) row[1]);
+            }
+            eventPublisher.publishEvent(new UserAuthorizationChangedEvent(versions, usernames));
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleGraphChanged(RoleGraphChangedEvent event) {
+        defaultRoleId = null;
+    }
+    
+    @EventListener
+    public void onCacheFlush(CacheFlushEvent event) {
+        defaultRoleId = null;
+    }
+    
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
@@ -154,4 +388,19 @@ public class UserService {
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
+    
+    private void bumpAuthzVersion(User user) {
+        bumpAuthzVersion(user, user.getUsername());
+    }
+    
+    private void bumpAuthzVersion(User user, String previousUsername) {
+        user.setAuthzVersion(user.getAuthzVersion() + 1);
+        
+        Set<String> usernames = new HashSet<>();
+        usernames.add(previousUsername);
+        usernames.add(user.getUsername());
+        
+        eventPublisher.publishEvent(new UserAuthorizationChangedEvent(
+                Map.of(user.getId(), user.getAuthzVersion()), usernames));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.stateloan.lms.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines of at most a fixed length, so a malformed stream cannot make a single line
+ * arbitrarily large. The rest of an overlong line is skipped; the kept prefix is returned and
+ * {@link #wasTruncated()} reports it. Lines end at {@code \n}, and a preceding {@code \r} is dropped.
+ */
+public class BoundedLineReader {
+    
+    private final Reader reader;
+    private final int maxLineLength;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    
+    private int position;
+    private int limit;
+    private boolean truncated;
+    
+    public BoundedLineReader(Reader reader, int maxLineLength) {
+        if (maxLineLength < 1) {
+            throw new IllegalArgumentException("Maximum line length must be positive");
+        }
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+    }
+    
+    /** Returns the next line without its terminator, or null at the end of the stream. */
+    public String readLine() throws IOException {
+        line.setLength(0);
+        truncated = false;
+        boolean readAny = false;
+        
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return readAny ? finish() : null;
+                }
+            }
+            
+            readAny = true;
+            char c = buffer[position++];
+            if (c == '\n') {
+                return finish();
+            }
+            if (line.length() < maxLineLength + 1) {
+                line.append(c);
+            } else {
+                truncated = true;
+            }
+        }
+    }
+    
+    public boolean wasTruncated() {
+        return truncated;
+    }
+    
+    private String finish() {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            length--;
+        }
+        if (length > maxLineLength) {
+            truncated = true;
+            length = maxLineLength;
+        }
+        return line.substring(0, length);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.stateloan.lms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits one CSV record (RFC 4180 quoting, comma separated) into its fields. Quoted fields may
+ * contain commas and doubled quotes but not line breaks, since records are read line by line.
+ */
+public final class CsvLine {
+    
+    private CsvLine() {}
+    
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        int length = line.length();
+        
+        while (true) {
+            if (i < length && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < length && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < length && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected character after quoted field");
+                }
+            } else {
+                while (i < length && line.charAt(i) != ',') {
+                    field.append(line.charAt(i++));
+                }
+            }
+            
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i >= length) {
+                return fields;
+            }
+            i++;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.stateloan.lms.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Position of the last row of a keyset-paginated page: the sort it was read with plus that row's
+ * sort key and id, which breaks ties. Handed to clients as an opaque URL-safe token.
+ */
+public record KeysetCursor(SortKey sortKey, boolean ascending, Comparable<?> key, long id) {
+    
+    private static final String VERSION = "v1";
+    
+    public enum SortKey {
+        ID("id"), CREATED_AT("createdAt"), USERNAME("username");
+        
+        private final String property;
+        
+        SortKey(String property) {
+            this.property = property;
+        }
+        
+        public String getProperty() {
+            return property;
+        }
+        
+        public static SortKey parse(String value) {
+            for (SortKey key : values()) {
+                if (key.property.equalsIgnoreCase(value)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort '" + value + "', expected id, createdAt or username");
+        }
+        
+        private Comparable<?> parseKey(String value) {
+            return this == CREATED_AT ? LocalDateTime.parse(value) : value;
+        }
+    }
+    
+    public static boolean parseAscending(String direction) {
+        return switch (direction == null ? "asc" : direction.toLowerCase(Locale.ROOT)) {
+            case "asc" -> true;
+            case "desc" -> false;
+            default -> throw new IllegalArgumentException("Unsupported direction '" + direction + "', expected asc or desc");
+        };
+    }
+    
+    public String encode() {
+        String raw = String.join("|", VERSION, sortKey.name(), ascending ? "a" : "d", Long.toString(id),
+                key != null ? key.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The key goes last, so a username containing the separator survives the split
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            
+            SortKey sortKey = SortKey.valueOf(parts[1]);
+            if (sortKey != SortKey.ID && parts[4].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Comparable<?> key = sortKey == SortKey.ID ? null : sortKey.parseKey(parts[4]);
+            return new KeysetCursor(sortKey, "a".equals(parts[2]), key, Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.stateloan.lms.util;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emits at most a fixed number of warnings per time window and counts the rest, reporting how
+ * many were dropped when the next window opens. Meant for paths an attacker can drive, such as
+ * failed authentication, where logging every event would let them flood the logs.
+ */
+public class RateLimitedLogger {
+    
+    private final Logger logger;
+    private final int maxPerWindow;
+    private final long windowNanos;
+    
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger emitted = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+    
+    public RateLimitedLogger(Logger logger, int maxPerWindow, Duration window) {
+        this.logger = logger;
+        this.maxPerWindow = maxPerWindow;
+        this.windowNanos = window.toNanos();
+    }
+    
+    public void warn(String format, Object... arguments) {
+        if (logger.isWarnEnabled() && tryAcquire()) {
+            logger.warn(format, arguments);
+        }
+    }
+    
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            emitted.set(0);
+            long dropped = suppressed.getAndSet(0);
+            if (dropped > 0) {
+                logger.warn("Suppressed {} similar messages in the last {} s", dropped,
+                        Duration.ofNanos(now - start).toSeconds());
+            }
+        }
+        
+        if (emitted.incrementAndGet() <= maxPerWindow) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+-- Moves existing databases from IDENTITY/BIGSERIAL ids to the pooled sequences the entities declare
+-- (allocationSize = 50). Runs before Hibernate starts, because Hibernate refuses a sequence whose
+-- increment differs from the allocation size. Tables Hibernate has not created yet are skipped;
+-- Hibernate creates their sequences with the right increment itself. Once a sequence is at 50 it is
+-- left alone, so running this on every start never moves a sequence other instances are using.
+DO $$
+DECLARE
+    target_table text;
+    id_sequence text;
+    identity_kind "char";
+    max_id bigint;
+    last_id bigint;
+BEGIN
+    -- Instances starting together must not both migrate
+    PERFORM pg_advisory_xact_lock(hashtext('lms.pooled-sequences'));
+    
+    FOREACH target_table IN ARRAY ARRAY['users', 'roles', 'permissions'] LOOP
+        IF to_regclass(target_table) IS NULL THEN
+            CONTINUE;
+        END IF;
+        
+        -- NULL for tables created with the sequence generator, whose sequence the column does not own
+        id_sequence := pg_get_serial_sequence(target_table, 'id');
+        IF id_sequence IS NULL
+           OR (SELECT seqincrement FROM pg_sequence WHERE seqrelid = id_sequence::regclass) = 50 THEN
+            CONTINUE;
+        END IF;
+        IF id_sequence::regclass <> to_regclass(target_table || '_id_seq') THEN
+            RAISE EXCEPTION 'Sequence of %.id is %, expected %_id_seq', target_table, id_sequence, target_table;
+        END IF;
+        
+        SELECT attidentity INTO identity_kind FROM pg_attribute
+         WHERE attrelid = target_table::regclass AND attname = 'id';
+        IF identity_kind <> '' THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', target_table);
+        ELSE
+            EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', id_sequence);
+        END IF;
+        
+        -- The next value hands out the block right above every id issued so far
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', target_table) INTO max_id;
+        EXECUTE format('SELECT last_value FROM %s', id_sequence) INTO last_id;
+        PERFORM setval(id_sequence, GREATEST(max_id, last_id, 1));
+        
+        RAISE NOTICE 'Sequence % now increments by 50, continuing after %', id_sequence, GREATEST(max_id, last_id, 1);
+    END LOOP;
+END
+$$;
@@ -0,0 +1,24 @@
+package com.stateloan.lms;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Boots the application against a throwaway PostgreSQL; the schema relies on native queries,
+ * {@code ON CONFLICT} and the pooled sequences script, so an embedded database will not do. The
+ * container is started once per JVM and shared by every subclass, which keeps the Spring context
+ * cacheable between test classes. The cluster relay is off since there is no second instance.
+ */
+@SpringBootTest
+@TestPropertySource(properties = "cluster.notify.enabled=false")
+public abstract class PostgresIntegrationTest {
+    
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    static {
+        postgres.start();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+package com.stateloan.lms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stateloan.lms.PostgresIntegrationTest;
+import com.stateloan.lms.dto.BulkRolePermissionsRequest;
+import com.stateloan.lms.dto.BulkUserRolesRequest;
+import com.stateloan.lms.entity.Role;
+import com.stateloan.lms.repository.PermissionRepository;
+import com.stateloan.lms.repository.UserRepository;
+import com.stateloan.lms.service.AuthService;
+import com.stateloan.lms.service.RoleService;
+import com.stateloan.lms.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls every {@code @StatementBudget} handler with enforcement on, so an overrun fails the
+ * request with a 500 and the test with it. Each test works on fixtures of its own; the handlers
+ * are expected to succeed, which also keeps a rejected request from passing as within budget.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "statement-budget.enforce=true")
+class StatementBudgetTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private RoleService roleService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PermissionRepository permissionRepository;
+    
+    private String bearer;
+    
+    @BeforeEach
+    void logIn() {
+        bearer = "Bearer " + authService.authenticate("admin", "admin123").getToken();
+    }
+    
+    @Test
+    void getAllRoles() throws Exception {
+        expectWithinBudget(get("/api/roles"));
+    }
+    
+    @Test
+    void getRoleById() throws Exception {
+        expectWithinBudget(get("/api/roles/{id}", createRole()));
+    }
+    
+    @Test
+    void getRoleWithPermissions() throws Exception {
+        Long roleId = createRole();
+        roleService.addPermissionToRole(roleId, permissionId("LOAN:READ"));
+        expectWithinBudget(get("/api/roles/{id}/permissions", roleId));
+    }
+    
+    @Test
+    void createRoleEndpoint() throws Exception {
+        expectWithinBudget(post("/api/roles")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("name", uniqueName("ROLE"), "description", "Created by the budget test"))));
+    }
+    
+    @Test
+    void updateRole() throws Exception {
+        expectWithinBudget(put("/api/roles/{id}", createRole())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("name", uniqueName("RENAMED"), "description", "Renamed by the budget test"))));
+    }
+    
+    @Test
+    void deleteRole() throws Exception {
+        expectWithinBudget(delete("/api/roles/{id}", createRole()));
+    }
+    
+    @Test
+    void assignPermissionsToRole() throws Exception {
+        expectWithinBudget(post("/api/roles/{id}/permissions", createRole())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Set.of(permissionId("LOAN:READ"), permissionId("REPORT:READ")))));
+    }
+    
+    @Test
+    void addPermissionToRole() throws Exception {
+        expectWithinBudget(post("/api/roles/{roleId}/permissions/{permissionId}", createRole(),
+                permissionId("LOAN:READ")));
+    }
+    
+    @Test
+    void removePermissionFromRole() throws Exception {
+        Long roleId = createRole();
+        Long permissionId = permissionId("LOAN:READ");
+        roleService.addPermissionToRole(roleId, permissionId);
+        expectWithinBudget(delete("/api/roles/{roleId}/permissions/{permissionId}", roleId, permissionId));
+    }
+    
+    @Test
+    void bulkUpdatePermissions() throws Exception {
+        BulkRolePermissionsRequest request = new BulkRolePermissionsRequest(Set.of(createRole(), createRole()),
+                Set.of(permissionId("LOAN:READ")), Set.of(permissionId("REPORT:READ")));
+        expectWithinBudget(post("/api/roles/permissions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(request)));
+    }
+    
+    @Test
+    void getAllUsers() throws Exception {
+        expectWithinBudget(get("/api/users"));
+    }
+    
+    @Test
+    void getUserById() throws Exception {
+        expectWithinBudget(get("/api/users/{id}", createUser()));
+    }
+    
+    @Test
+    void updateUser() throws Exception {
+        String username = uniqueName("renamed");
+        expectWithinBudget(put("/api/users/{id}", createUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("username", username, "email", username + "@example.com",
+                        "password", "changed-password", "enabled", true))));
+    }
+    
+    @Test
+    void deleteUser() throws Exception {
+        expectWithinBudget(delete("/api/users/{id}", createUser()));
+    }
+    
+    @Test
+    void assignRolesToUser() throws Exception {
+        expectWithinBudget(post("/api/users/{id}/roles", createUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Set.of(createRole(), createRole()))));
+    }
+    
+    @Test
+    void addRoleToUser() throws Exception {
+        expectWithinBudget(post("/api/users/{userId}/roles/{roleId}", createUser(), createRole()));
+    }
+    
+    @Test
+    void removeRoleFromUser() throws Exception {
+        Long userId = createUser();
+        Long roleId = createRole();
+        userService.addRoleToUser(userId, roleId);
+        expectWithinBudget(delete("/api/users/{userId}/roles/{roleId}", userId, roleId));
+    }
+    
+    @Test
+    void bulkUpdateRoles() throws Exception {
+        BulkUserRolesRequest request = new BulkUserRolesRequest(Set.of(createUser(), createUser()), null,
+                Set.of(createRole()), Set.of());
+        expectWithinBudget(post("/api/users/roles/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(request)));
+    }
+    
+    @Test
+    void importUsers() throws Exception {
+        String first = uniqueName("imported");
+        String second = uniqueName("imported");
+        String csv = "username,email,password,roles\n"
+                + first + "," + first + "@example.com,secret-password,USER\n"
+                + second + "," + second + "@example.com,secret-password,USER\n";
+        expectWithinBudget(post("/api/users/import")
+                .contentType("text/csv")
+                .content(csv));
+    }
+    
+    private void expectWithinBudget(MockHttpServletRequestBuilder request) throws Exception {
+        mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+    
+    private Long createRole() {
+        return roleService.createRole(new Role(uniqueName("ROLE"), "Budget test fixture")).getId();
+    }
+    
+    private Long createUser() {
+        String username = uniqueName("user");
+        userService.registerUser(username, username + "@example.com", "secret-password");
+        return userRepository.findByUsername(username).orElseThrow().getId();
+    }
+    
+    private Long permissionId(String name) {
+        return permissionRepository.findByName(name).orElseThrow().getId();
+    }
+    
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+    
+    private static String uniqueName(String prefix) {
+        return prefix + System.nanoTime();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.stateloan.lms.service;
+
+import com.stateloan.lms.PostgresIntegrationTest;
+import com.stateloan.lms.config.StatementCounter;
+import com.stateloan.lms.dto.JwtResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthServiceTest extends PostgresIntegrationTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Test
+    void loginIssuesASingleStatement() {
+        // A fresh account, so the principal cache cannot answer and the lookup goes to the database
+        String username = "login" + System.nanoTime();
+        userService.registerUser(username, username + "@example.com", "secret-password");
+        
+        StatementCounter.start();
+        try {
+            JwtResponse response = authService.authenticate(username, "secret-password");
+            
+            assertThat(response.getUsername()).isEqualTo(username);
+            assertThat(StatementCounter.current()).isEqualTo(1);
+        } finally {
+            StatementCounter.stop();
+        }
+    }
+}
\ No newline at end of file